@@ -2,6 +2,10 @@ package com.ironservices.licensing;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents an activation of a license on a machine.
  */
@@ -74,6 +78,39 @@ public class Activation {
         this.lastSeenAt = lastSeenAt;
     }
 
+    /**
+     * Gets when the activation was created.
+     *
+     * @return The parsed timestamp, or null if it is missing or not ISO-8601
+     */
+    public Instant getActivatedAtInstant() {
+        return parseInstant(activatedAt);
+    }
+
+    /**
+     * Gets when the machine last checked in.
+     *
+     * @return The parsed timestamp, or null if it is missing or not ISO-8601
+     */
+    public Instant getLastSeenAtInstant() {
+        return parseInstant(lastSeenAt);
+    }
+
+    static Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(value).toInstant();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "Activation{id='" + id + "', machineName='" + machineName + "', platform='" + platform + "'}";
@@ -0,0 +1,61 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Walks a license's activations page by page, fetching the next page only when the current one is used up.
+ * Each page gets its own request budget.
+ * Network failures surface as {@link UncheckedIOException} from {@link #hasNext()}.
+ */
+final class ActivationIterator implements Iterator<Activation> {
+    private final Transport transport;
+    private final String licenseKey;
+    private final int pageSize;
+    private final Supplier<RequestContext> contexts;
+
+    private List<Activation> page;
+    private int index;
+    private String cursor;
+    private boolean lastPage;
+
+    ActivationIterator(Transport transport, String licenseKey, int pageSize, Supplier<RequestContext> contexts) {
+        this.transport = transport;
+        this.licenseKey = licenseKey;
+        this.pageSize = pageSize;
+        this.contexts = contexts;
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Loop because a server may return an empty page that still carries a cursor.
+        while (page == null || index == page.size()) {
+            if (lastPage) {
+                return false;
+            }
+            ActivationPage next;
+            try {
+                next = transport.listActivations(licenseKey, cursor, pageSize, contexts.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            page = next.getActivations();
+            index = 0;
+            cursor = next.getNextCursor();
+            lastPage = cursor == null;
+        }
+        return true;
+    }
+
+    @Override
+    public Activation next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.get(index++);
+    }
+}
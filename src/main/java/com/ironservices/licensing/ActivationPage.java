@@ -0,0 +1,27 @@
+package com.ironservices.licensing;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a license's activations, as returned by the activations endpoint.
+ */
+final class ActivationPage {
+    @SerializedName("activations")
+    private List<Activation> activations;
+
+    @SerializedName("nextCursor")
+    private String nextCursor;
+
+    List<Activation> getActivations() {
+        return activations != null ? activations : Collections.emptyList();
+    }
+
+    /**
+     * Gets the cursor of the following page, or null if this is the last one.
+     */
+    String getNextCursor() {
+        return nextCursor == null || nextCursor.isEmpty() ? null : nextCursor;
+    }
+}
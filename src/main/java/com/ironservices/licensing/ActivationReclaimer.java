@@ -0,0 +1,105 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deactivates machines that have not checked in for a while, so abandoned containers stop holding seats.
+ * Stale machines are collected first and then deactivated in rate-limited batches. Machines whose
+ * timestamps cannot be parsed are never reclaimed, and neither is this machine.
+ * When run on behalf of a caller, every page and batch shares the caller's deadline, and reclaiming stops
+ * rather than pausing past it.
+ */
+final class ActivationReclaimer {
+    private final Transport transport;
+    private final int batchSize;
+    private final long batchIntervalNanos;
+    private final Log log;
+
+    ActivationReclaimer(Transport transport, LicenseOptions options, Log log) {
+        this.transport = transport;
+        this.batchSize = Math.max(1, options.getReclaimBatchSize());
+        double perSecond = options.getReclaimBatchesPerSecond();
+        this.batchIntervalNanos = perSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / perSecond) : 0;
+        this.log = log;
+    }
+
+    /**
+     * Deactivates every activation of a license idle for longer than the threshold.
+     *
+     * @param caller The context of the operation this runs within, or null to give each call its own
+     *               background budget
+     * @return The machine IDs that were deactivated
+     */
+    Set<String> reclaim(String licenseKey, Duration idleThreshold, RequestContext caller) {
+        Supplier<RequestContext> contexts = caller != null ? () -> caller : transport::background;
+        Set<String> reclaimed = new HashSet<>();
+        List<String> stale;
+        try {
+            stale = findStale(licenseKey, Instant.now().minus(idleThreshold), contexts);
+        } catch (RuntimeException e) {
+            log.warn("Could not list activations to reclaim: {0}", e.getMessage());
+            return reclaimed;
+        }
+        if (stale.isEmpty()) {
+            return reclaimed;
+        }
+        log.debug("Reclaiming {0,number,#} activations idle for more than {1}", stale.size(), idleThreshold);
+
+        long nextBatch = System.nanoTime();
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            if (caller != null && (caller.isCancelled() || nextBatch - System.nanoTime() >= caller.remainingNanos())) {
+                log.debug("Reclaiming stopped at the caller's deadline");
+                break;
+            }
+            try {
+                pauseUntil(nextBatch);
+                reclaimed.addAll(transport.deactivateMachines(licenseKey,
+                    stale.subList(from, Math.min(stale.size(), from + batchSize)), contexts.get()));
+            } catch (IOException e) {
+                log.warn("Reclaiming stopped: {0}", e.getMessage());
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            nextBatch = System.nanoTime() + batchIntervalNanos;
+        }
+        return reclaimed;
+    }
+
+    // Collect before deactivating: removing machines while paging would shift the pages still to come.
+    private List<String> findStale(String licenseKey, Instant cutoff, Supplier<RequestContext> contexts) {
+        List<String> stale = new ArrayList<>();
+        String self = transport.getMachineId();
+        Iterator<Activation> activations = new ActivationIterator(transport, licenseKey, 100, contexts);
+        while (activations.hasNext()) {
+            Activation activation = activations.next();
+            // A machine that never checked in is judged by its activation time, but one whose last check-in
+            // cannot be read is left alone rather than judged by a possibly much older activation.
+            String lastSeenAt = activation.getLastSeenAt();
+            Instant seen = lastSeenAt == null || lastSeenAt.isEmpty()
+                ? activation.getActivatedAtInstant() : activation.getLastSeenAtInstant();
+            String machineId = activation.getMachineId();
+            if (seen != null && seen.isBefore(cutoff) && machineId != null && !machineId.equals(self)) {
+                stale.add(machineId);
+            }
+        }
+        return stale;
+    }
+
+    private static void pauseUntil(long deadline) throws InterruptedException {
+        long wait = deadline - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
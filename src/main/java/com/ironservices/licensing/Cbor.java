@@ -0,0 +1,384 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Reads and writes CBOR (RFC 8949) through Gson, so the same model binding serves both encodings.
+ * Covers the data model JSON can express; byte strings decode to base64 text and tags are skipped.
+ */
+final class Cbor {
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+
+    private Cbor() {}
+
+    /**
+     * Decodes a single CBOR data item.
+     *
+     * @param data The encoded bytes
+     * @return The equivalent JSON tree
+     * @throws JsonParseException if the data is malformed
+     */
+    static JsonElement decode(byte[] data) {
+        Decoder decoder = new Decoder(data);
+        JsonElement element = decoder.item();
+        if (decoder.pos != data.length) {
+            throw decoder.error("Trailing bytes after CBOR item");
+        }
+        return element;
+    }
+
+    /**
+     * Binds a single CBOR data item to a model type, through the JSON tree {@link #decode(byte[])} builds.
+     *
+     * @param gson The Gson instance holding the type adapters
+     * @param data The encoded bytes
+     * @param type The type to bind to
+     * @return The bound value
+     * @throws JsonParseException if the data is malformed
+     */
+    static <T> T decode(Gson gson, byte[] data, Type type) {
+        return gson.fromJson(decode(data), type);
+    }
+
+    /**
+     * Encodes a JSON tree as CBOR.
+     *
+     * @param element The tree to encode
+     * @return The encoded bytes
+     */
+    static byte[] encode(JsonElement element) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        write(out, element);
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            out.write(0xf6);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            writeHead(out, MAJOR_MAP, object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeText(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            writeHead(out, MAJOR_ARRAY, array.size());
+            for (JsonElement item : array) {
+                write(out, item);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.write(primitive.getAsBoolean() ? 0xf5 : 0xf4);
+            } else if (primitive.isNumber()) {
+                writeNumber(out, primitive);
+            } else {
+                writeText(out, primitive.getAsString());
+            }
+        }
+    }
+
+    private static void writeNumber(ByteArrayOutputStream out, JsonPrimitive number) {
+        BigDecimal value = number.getAsBigDecimal();
+        if (value.scale() <= 0 || value.stripTrailingZeros().scale() <= 0) {
+            try {
+                long l = value.longValueExact();
+                if (l >= 0) {
+                    writeHead(out, MAJOR_UNSIGNED, l);
+                } else {
+                    writeHead(out, MAJOR_NEGATIVE, -1 - l);
+                }
+                return;
+            } catch (ArithmeticException e) {
+                // Too large for a long; fall through to a double.
+            }
+        }
+        long bits = Double.doubleToLongBits(value.doubleValue());
+        out.write(0xfb);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+
+    private static void writeText(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeHead(out, MAJOR_TEXT, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeHead(ByteArrayOutputStream out, int major, long value) {
+        int type = major << 5;
+        if (value < 24) {
+            out.write(type | (int) value);
+        } else if (value < 0x100) {
+            out.write(type | 24);
+            out.write((int) value);
+        } else if (value < 0x10000) {
+            out.write(type | 25);
+            out.write((int) (value >>> 8));
+            out.write((int) value);
+        } else if (value < 0x100000000L) {
+            out.write(type | 26);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        } else {
+            out.write(type | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+    }
+
+    // Builds the tree in one recursive pass over the bytes. Integers stay integers, byte strings become
+    // base64 text, non-text map keys become their text form and tags are skipped.
+    private static final class Decoder {
+        private static final int MAJOR_BYTES = 2;
+        private static final int MAJOR_TAG = 6;
+        private static final int INDEFINITE = 31;
+        private static final int BREAK = 0xff;
+        private static final int MAX_DEPTH = 512;
+
+        private final byte[] data;
+        private int pos;
+        private int depth;
+
+        Decoder(byte[] data) {
+            this.data = data;
+        }
+
+        JsonElement item() {
+            int initial = next();
+            int major = initial >>> 5;
+            int info = initial & 0x1f;
+            switch (major) {
+                case MAJOR_UNSIGNED:
+                case MAJOR_NEGATIVE:
+                    return new JsonPrimitive(integer(major, argument(info)));
+                case MAJOR_BYTES:
+                    return new JsonPrimitive(Base64.getEncoder().encodeToString(bytes(major, info)));
+                case MAJOR_TEXT:
+                    return new JsonPrimitive(text(info));
+                case MAJOR_ARRAY:
+                    return array(info);
+                case MAJOR_MAP:
+                    return map(info);
+                case MAJOR_TAG:
+                    argument(info);
+                    return item();
+                default:
+                    return simple(info);
+            }
+        }
+
+        private JsonArray array(int info) {
+            enter();
+            JsonArray array;
+            if (info == INDEFINITE) {
+                array = new JsonArray();
+                while (peek() != BREAK) {
+                    array.add(item());
+                }
+                pos++;
+            } else {
+                long count = argument(info);
+                requireAvailable(count);
+                array = new JsonArray((int) count);
+                for (long i = 0; i < count; i++) {
+                    array.add(item());
+                }
+            }
+            depth--;
+            return array;
+        }
+
+        private JsonObject map(int info) {
+            enter();
+            JsonObject object = new JsonObject();
+            if (info == INDEFINITE) {
+                while (peek() != BREAK) {
+                    object.add(name(), item());
+                }
+                pos++;
+            } else {
+                long count = argument(info);
+                requireAvailable(count);
+                for (long i = 0; i < count; i++) {
+                    object.add(name(), item());
+                }
+            }
+            depth--;
+            return object;
+        }
+
+        private String name() {
+            JsonElement key = item();
+            if (!key.isJsonPrimitive()) {
+                throw error("Unsupported CBOR map key");
+            }
+            return key.getAsString();
+        }
+
+        private JsonElement simple(int info) {
+            switch (info) {
+                case 20:
+                    return new JsonPrimitive(false);
+                case 21:
+                    return new JsonPrimitive(true);
+                case 22:
+                case 23:
+                    return JsonNull.INSTANCE;
+                case 25:
+                    return new JsonPrimitive(halfToDouble((int) bits(2)));
+                case 26:
+                    return new JsonPrimitive((double) Float.intBitsToFloat((int) bits(4)));
+                case 27:
+                    return new JsonPrimitive(Double.longBitsToDouble(bits(8)));
+                default:
+                    throw error("Unsupported CBOR simple value");
+            }
+        }
+
+        private static Number integer(int major, long argument) {
+            if (argument >= 0) {
+                return major == MAJOR_UNSIGNED ? argument : -1 - argument;
+            }
+            // The argument is an unsigned 64-bit value above Long.MAX_VALUE.
+            BigInteger unsigned = new BigInteger(Long.toUnsignedString(argument));
+            return major == MAJOR_UNSIGNED ? unsigned : unsigned.add(BigInteger.ONE).negate();
+        }
+
+        private String text(int info) {
+            if (info == INDEFINITE) {
+                return new String(bytes(MAJOR_TEXT, info), StandardCharsets.UTF_8);
+            }
+            int length = length(info);
+            String text = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return text;
+        }
+
+        private byte[] bytes(int major, int info) {
+            if (info != INDEFINITE) {
+                int length = length(info);
+                byte[] result = Arrays.copyOfRange(data, pos, pos + length);
+                pos += length;
+                return result;
+            }
+            ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+            while (peek() != BREAK) {
+                int chunk = next();
+                if ((chunk >>> 5) != major || (chunk & 0x1f) == INDEFINITE) {
+                    throw error("Mismatched CBOR string chunk");
+                }
+                int length = length(chunk & 0x1f);
+                chunks.write(data, pos, length);
+                pos += length;
+            }
+            pos++;
+            return chunks.toByteArray();
+        }
+
+        private int length(int info) {
+            long length = argument(info);
+            if (length < 0 || length > data.length - pos) {
+                throw error("CBOR string exceeds input");
+            }
+            return (int) length;
+        }
+
+        // Every item takes at least one byte, so a count beyond the remaining input is malformed.
+        private void requireAvailable(long count) {
+            if (count < 0 || count > data.length - pos) {
+                throw error("CBOR container exceeds input");
+            }
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw error("CBOR nesting too deep");
+            }
+        }
+
+        private long argument(int info) {
+            if (info < 24) {
+                return info;
+            }
+            switch (info) {
+                case 24:
+                    return bits(1);
+                case 25:
+                    return bits(2);
+                case 26:
+                    return bits(4);
+                case 27:
+                    return bits(8);
+                default:
+                    throw error("Invalid CBOR argument " + info);
+            }
+        }
+
+        private long bits(int count) {
+            if (count > data.length - pos) {
+                throw error("Unexpected end of CBOR input");
+            }
+            long value = 0;
+            for (int i = 0; i < count; i++) {
+                value = (value << 8) | (data[pos++] & 0xff);
+            }
+            return value;
+        }
+
+        private int peek() {
+            if (pos >= data.length) {
+                throw error("Unexpected end of CBOR input");
+            }
+            return data[pos] & 0xff;
+        }
+
+        private int next() {
+            int value = peek();
+            pos++;
+            return value;
+        }
+
+        JsonParseException error(String message) {
+            return new JsonParseException(message + " at offset " + pos);
+        }
+
+        private static double halfToDouble(int half) {
+            int exponent = (half >>> 10) & 0x1f;
+            int mantissa = half & 0x3ff;
+            double value;
+            if (exponent == 0) {
+                value = mantissa * Math.pow(2, -24);
+            } else if (exponent == 31) {
+                value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+            } else {
+                value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+            }
+            return (half & 0x8000) != 0 ? -value : value;
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class CheckoutResult {
     @SerializedName("error")
     private String error;
 
+    private transient ErrorCode errorCode;
+    private transient int httpStatus;
+
     public CheckoutResult() {}
 
     public CheckoutResult(boolean success, String error) {
@@ -37,6 +40,13 @@ public class CheckoutResult {
         return new CheckoutResult(false, error);
     }
 
+    public static CheckoutResult failure(ErrorCode errorCode, String error, int httpStatus) {
+        CheckoutResult result = new CheckoutResult(false, error);
+        result.errorCode = errorCode;
+        result.httpStatus = httpStatus;
+        return result;
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -69,6 +79,35 @@ public class CheckoutResult {
         this.error = error;
     }
 
+    /**
+     * Gets why the checkout failed.
+     *
+     * @return The error code, or null if the checkout succeeded
+     */
+    public ErrorCode getErrorCode() {
+        if (errorCode == null && !success) {
+            errorCode = ErrorCode.of(error, httpStatus);
+        }
+        return errorCode;
+    }
+
+    public void setErrorCode(ErrorCode errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Gets the HTTP status of the response the result came from.
+     *
+     * @return The status, or 0 if no response was received
+     */
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public void setHttpStatus(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
     @Override
     public String toString() {
         return "CheckoutResult{success=" + success + ", checkoutUrl='" + checkoutUrl + "'}";
@@ -0,0 +1,41 @@
+package com.ironservices.licensing;
+
+/**
+ * A named rule registered with {@link Entitlements}. Checking it reads a result computed when the license
+ * last changed, so {@link #isGranted()} takes no lock and allocates nothing.
+ */
+public final class Entitlement {
+    private final Entitlements owner;
+    private final int index;
+    private final String name;
+    private final EntitlementRule rule;
+
+    Entitlement(Entitlements owner, int index, String name, EntitlementRule rule) {
+        this.owner = owner;
+        this.index = index;
+        this.name = name;
+        this.rule = rule;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public EntitlementRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Checks whether the current license satisfies this entitlement.
+     *
+     * @return true if granted
+     */
+    public boolean isGranted() {
+        return owner.isGranted(index);
+    }
+
+    @Override
+    public String toString() {
+        return "Entitlement{name='" + name + "', rule=" + rule.getExpression() + "}";
+    }
+}
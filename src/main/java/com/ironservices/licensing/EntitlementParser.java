@@ -0,0 +1,432 @@
+package com.ironservices.licensing;
+
+import java.time.Instant;
+
+/**
+ * Compiles entitlement rule expressions into a tree of small evaluators, checking types as it goes so a rule
+ * that parses cannot fail at evaluation time.
+ * <p>
+ * Grammar, loosest binding first:
+ * <pre>
+ * rule       = or
+ * or         = and { "||" and }
+ * and        = unary { "&amp;&amp;" unary }
+ * unary      = "!" unary | comparison
+ * comparison = operand [ ( "==" | "!=" | "&lt;" | "&lt;=" | "&gt;" | "&gt;=" ) operand ]
+ * operand    = "(" or ")" | number | 'string' | "true" | "false" | name | name "(" 'string' ")"
+ * </pre>
+ */
+final class EntitlementParser {
+    /**
+     * A compiled rule or sub-rule. {@code now} is the evaluation time in epoch milliseconds, so every rule
+     * evaluated for one license sees the same clock.
+     */
+    interface Condition {
+        boolean test(License license, long now);
+    }
+
+    private interface NumberValue {
+        double get(License license);
+    }
+
+    private interface StringValue {
+        String get(License license);
+    }
+
+    private enum Kind { BOOLEAN, NUMBER, STRING, METADATA }
+
+    private static final class Term {
+        final Kind kind;
+        final Condition condition;
+        final NumberValue number;
+        final StringValue string;
+        final String metadataKey;
+
+        private Term(Kind kind, Condition condition, NumberValue number, StringValue string, String metadataKey) {
+            this.kind = kind;
+            this.condition = condition;
+            this.number = number;
+            this.string = string;
+            this.metadataKey = metadataKey;
+        }
+
+        static Term condition(Condition condition) {
+            return new Term(Kind.BOOLEAN, condition, null, null, null);
+        }
+
+        static Term number(NumberValue number) {
+            return new Term(Kind.NUMBER, null, number, null, null);
+        }
+
+        static Term string(StringValue string) {
+            return new Term(Kind.STRING, null, null, string, null);
+        }
+
+        static Term metadata(String key) {
+            return new Term(Kind.METADATA, null, null, null, key);
+        }
+    }
+
+    private final String source;
+    private int pos;
+
+    private EntitlementParser(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @throws IllegalArgumentException if the expression is malformed or mixes incompatible types
+     */
+    static Condition compile(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Entitlement rule is required");
+        }
+        EntitlementParser parser = new EntitlementParser(expression);
+        Condition condition = parser.asCondition(parser.parseOr());
+        parser.skipWhitespace();
+        if (parser.pos < expression.length()) {
+            throw parser.error("Unexpected '" + expression.charAt(parser.pos) + "'");
+        }
+        return condition;
+    }
+
+    private Term parseOr() {
+        Term term = parseAnd();
+        if (!peek("||")) {
+            return term;
+        }
+        Condition left = asCondition(term);
+        while (accept("||")) {
+            Condition first = left;
+            Condition second = asCondition(parseAnd());
+            left = (license, now) -> first.test(license, now) || second.test(license, now);
+        }
+        return Term.condition(left);
+    }
+
+    private Term parseAnd() {
+        Term term = parseUnary();
+        if (!peek("&&")) {
+            return term;
+        }
+        Condition left = asCondition(term);
+        while (accept("&&")) {
+            Condition first = left;
+            Condition second = asCondition(parseUnary());
+            left = (license, now) -> first.test(license, now) && second.test(license, now);
+        }
+        return Term.condition(left);
+    }
+
+    private Term parseUnary() {
+        if (accept("!")) {
+            Condition operand = asCondition(parseUnary());
+            return Term.condition((license, now) -> !operand.test(license, now));
+        }
+        return parseComparison();
+    }
+
+    private Term parseComparison() {
+        Term left = parseOperand();
+        int at = pos;
+        String op = acceptComparison();
+        if (op == null) {
+            return left;
+        }
+        Term right = parseOperand();
+        Kind kind = left.kind == Kind.METADATA ? right.kind : left.kind;
+        if (kind == Kind.METADATA) {
+            kind = Kind.STRING;
+        }
+        if (left.kind != Kind.METADATA && right.kind != Kind.METADATA && left.kind != right.kind) {
+            throw errorAt(at, "Cannot compare " + describe(left.kind) + " with " + describe(right.kind));
+        }
+        switch (kind) {
+            case NUMBER:
+                return Term.condition(compareNumbers(asNumber(left), op, asNumber(right)));
+            case STRING:
+                return Term.condition(compareStrings(asString(left), op, asString(right), at));
+            default:
+                return Term.condition(compareConditions(left, op, right, at));
+        }
+    }
+
+    private Term parseOperand() {
+        skipWhitespace();
+        if (pos >= source.length()) {
+            throw error("Unexpected end of rule");
+        }
+        char c = source.charAt(pos);
+        if (c == '(') {
+            pos++;
+            Term inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        if (c == '\'' || c == '"') {
+            String literal = readString();
+            return Term.string(license -> literal);
+        }
+        if (Character.isDigit(c) || c == '-' || c == '.') {
+            double literal = readNumber();
+            return Term.number(license -> literal);
+        }
+        if (Character.isLetter(c) || c == '_') {
+            int at = pos;
+            String name = readName();
+            if (accept("(")) {
+                skipWhitespace();
+                String argument = readString();
+                expect(")");
+                return function(name, argument, at);
+            }
+            return variable(name, at);
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Term variable(String name, int at) {
+        switch (name) {
+            case "true":
+                return Term.condition((license, now) -> true);
+            case "false":
+                return Term.condition((license, now) -> false);
+            case "status":
+                return Term.string(license -> license.getStatus() != null ? license.getStatus().getValue() : "");
+            case "type":
+                return Term.string(license -> license.getType() != null ? license.getType().getValue() : "");
+            case "maxActivations":
+                return Term.number(license -> license.getMaxActivations());
+            case "currentActivations":
+                return Term.number(license -> license.getCurrentActivations());
+            case "valid":
+                return Term.condition((license, now) -> license.getStatus() == LicenseStatus.VALID
+                    || license.getStatus() == LicenseStatus.TRIAL);
+            case "trial":
+                return Term.condition((license, now) -> license.getType() == LicenseType.TRIAL
+                    || license.getStatus() == LicenseStatus.TRIAL);
+            case "expired":
+                return Term.condition(EntitlementParser::isExpired);
+            default:
+                throw errorAt(at, "Unknown name '" + name + "'");
+        }
+    }
+
+    private Term function(String name, String argument, int at) {
+        switch (name) {
+            case "feature":
+                return Term.condition((license, now) -> license.hasFeature(argument));
+            case "limit":
+                return Term.number(license -> {
+                    Feature feature = license.getFeature(argument);
+                    return feature != null && feature.isEnabled() ? feature.getLimit() : 0;
+                });
+            case "meta":
+                return Term.metadata(argument);
+            default:
+                throw errorAt(at, "Unknown function '" + name + "'");
+        }
+    }
+
+    static boolean isExpired(License license, long now) {
+        if (license.getStatus() == LicenseStatus.EXPIRED || license.getStatus() == LicenseStatus.TRIAL_EXPIRED) {
+            return true;
+        }
+        Instant expiresAt = Activation.parseInstant(license.getExpiresAt());
+        return expiresAt != null && expiresAt.toEpochMilli() <= now;
+    }
+
+    private Condition asCondition(Term term) {
+        switch (term.kind) {
+            case BOOLEAN:
+                return term.condition;
+            case METADATA:
+                String key = term.metadataKey;
+                return (license, now) -> license.getMetadataView() != null
+                    && license.getMetadataView().getBoolean(key, false);
+            default:
+                throw error("Expected a condition but found " + describe(term.kind));
+        }
+    }
+
+    private static NumberValue asNumber(Term term) {
+        if (term.kind == Kind.METADATA) {
+            String key = term.metadataKey;
+            return license -> license.getMetadataView() != null
+                ? license.getMetadataView().getDouble(key, Double.NaN) : Double.NaN;
+        }
+        return term.number;
+    }
+
+    private static StringValue asString(Term term) {
+        if (term.kind == Kind.METADATA) {
+            String key = term.metadataKey;
+            return license -> license.getMetadataView() != null ? license.getMetadataView().getString(key) : null;
+        }
+        return term.string;
+    }
+
+    // Comparisons with a missing (NaN) metadata number are false, whichever way round, including !=.
+    private static Condition compareNumbers(NumberValue left, String op, NumberValue right) {
+        switch (op) {
+            case "==":
+                return (license, now) -> left.get(license) == right.get(license);
+            case "!=":
+                return (license, now) -> {
+                    double a = left.get(license);
+                    double b = right.get(license);
+                    return a != b && !Double.isNaN(a) && !Double.isNaN(b);
+                };
+            case "<":
+                return (license, now) -> left.get(license) < right.get(license);
+            case "<=":
+                return (license, now) -> left.get(license) <= right.get(license);
+            case ">":
+                return (license, now) -> left.get(license) > right.get(license);
+            default:
+                return (license, now) -> left.get(license) >= right.get(license);
+        }
+    }
+
+    // Strings compare case-insensitively, so 'Trial' matches the API's "trial". Only metadata strings can be
+    // missing (null), and comparisons with them are false either way.
+    private Condition compareStrings(StringValue left, String op, StringValue right, int at) {
+        switch (op) {
+            case "==":
+                return (license, now) -> {
+                    String a = left.get(license);
+                    String b = right.get(license);
+                    return a != null && b != null && a.equalsIgnoreCase(b);
+                };
+            case "!=":
+                return (license, now) -> {
+                    String a = left.get(license);
+                    String b = right.get(license);
+                    return a != null && b != null && !a.equalsIgnoreCase(b);
+                };
+            default:
+                throw errorAt(at, "Strings can only be compared with == and !=");
+        }
+    }
+
+    private Condition compareConditions(Term left, String op, Term right, int at) {
+        Condition a = asCondition(left);
+        Condition b = asCondition(right);
+        Condition comparison;
+        switch (op) {
+            case "==":
+                comparison = (license, now) -> a.test(license, now) == b.test(license, now);
+                break;
+            case "!=":
+                comparison = (license, now) -> a.test(license, now) != b.test(license, now);
+                break;
+            default:
+                throw errorAt(at, "Conditions can only be compared with == and !=");
+        }
+        return requireFlag(left, requireFlag(right, comparison));
+    }
+
+    // As a bare condition a missing metadata flag reads as false, but compared with a value it is neither
+    // true nor false, so the comparison is false.
+    private static Condition requireFlag(Term term, Condition comparison) {
+        if (term.kind != Kind.METADATA) {
+            return comparison;
+        }
+        String key = term.metadataKey;
+        return (license, now) -> license.getMetadataView() != null && license.getMetadataView().hasBoolean(key)
+            && comparison.test(license, now);
+    }
+
+    private static String describe(Kind kind) {
+        switch (kind) {
+            case NUMBER:
+                return "a number";
+            case STRING:
+                return "a string";
+            default:
+                return "a condition";
+        }
+    }
+
+    private String acceptComparison() {
+        for (String op : new String[] {"==", "!=", "<=", ">=", "<", ">"}) {
+            if (accept(op)) {
+                return op;
+            }
+        }
+        return null;
+    }
+
+    private String readName() {
+        int start = pos;
+        while (pos < source.length()
+                && (Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_')) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private double readNumber() {
+        int start = pos;
+        if (source.charAt(pos) == '-') {
+            pos++;
+        }
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+            pos++;
+        }
+        try {
+            return Double.parseDouble(source.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw errorAt(start, "Invalid number '" + source.substring(start, pos) + "'");
+        }
+    }
+
+    private String readString() {
+        if (pos >= source.length() || (source.charAt(pos) != '\'' && source.charAt(pos) != '"')) {
+            throw error("Expected a quoted string");
+        }
+        char quote = source.charAt(pos);
+        int end = source.indexOf(quote, pos + 1);
+        if (end < 0) {
+            throw error("Unterminated string");
+        }
+        String value = source.substring(pos + 1, end);
+        pos = end + 1;
+        return value;
+    }
+
+    private boolean peek(String token) {
+        skipWhitespace();
+        return source.startsWith(token, pos);
+    }
+
+    private boolean accept(String token) {
+        if (peek(token)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return errorAt(pos, message);
+    }
+
+    private IllegalArgumentException errorAt(int at, String message) {
+        return new IllegalArgumentException(message + " at position " + at + " in rule: " + source);
+    }
+}
@@ -0,0 +1,65 @@
+package com.ironservices.licensing;
+
+import java.util.function.Predicate;
+
+/**
+ * A rule expression compiled once into an evaluator over a {@link License}.
+ * <p>
+ * Rules combine conditions with {@code &&}, {@code ||}, {@code !} and parentheses, and compare values with
+ * {@code == != < <= > >=}:
+ * <ul>
+ *   <li>{@code status}, {@code type} - the license status and type as strings, e.g. {@code type != 'trial'}</li>
+ *   <li>{@code maxActivations}, {@code currentActivations} - numbers</li>
+ *   <li>{@code valid}, {@code trial}, {@code expired} - conditions; {@code expired} also turns true once
+ *       {@code expiresAt} has passed</li>
+ *   <li>{@code feature('key')} - whether a feature is enabled</li>
+ *   <li>{@code limit('key')} - a feature's limit, 0 if it is not enabled</li>
+ *   <li>{@code meta('key')} - a metadata value, read as a number, string or condition to match what it is
+ *       compared with; comparisons with a missing value are false</li>
+ * </ul>
+ * For example: {@code feature('export') && meta('tierRank') >= 2 && currentActivations <= maxActivations && !expired}.
+ */
+public final class EntitlementRule implements Predicate<License> {
+    private final String expression;
+    private final EntitlementParser.Condition condition;
+
+    private EntitlementRule(String expression, EntitlementParser.Condition condition) {
+        this.expression = expression;
+        this.condition = condition;
+    }
+
+    /**
+     * Compiles a rule expression.
+     *
+     * @param expression The rule
+     * @return The compiled rule
+     * @throws IllegalArgumentException if the rule is malformed, naming the position of the problem
+     */
+    public static EntitlementRule compile(String expression) {
+        return new EntitlementRule(expression, EntitlementParser.compile(expression));
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Evaluates the rule against a license at the current time.
+     *
+     * @param license The license; null never satisfies a rule
+     * @return true if the license satisfies the rule
+     */
+    @Override
+    public boolean test(License license) {
+        return test(license, System.currentTimeMillis());
+    }
+
+    boolean test(License license, long now) {
+        return license != null && condition.test(license, now);
+    }
+
+    @Override
+    public String toString() {
+        return "EntitlementRule{" + expression + "}";
+    }
+}
@@ -0,0 +1,120 @@
+package com.ironservices.licensing;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named entitlements of one client, evaluated against its current license.
+ * <p>
+ * Every rule is evaluated when the license changes and the results are published together as one immutable
+ * array, so a check is a volatile read and an index. Results are also refreshed once when the license's
+ * {@code expiresAt} passes, since that is the only input that changes without a new license.
+ */
+public final class Entitlements {
+    private static final State EMPTY = new State(null, new boolean[0], Long.MAX_VALUE);
+
+    private final Object lock = new Object();
+    private final Map<String, Entitlement> byName = new ConcurrentHashMap<>();
+    private EntitlementRule[] rules = new EntitlementRule[0];
+    private volatile State state = EMPTY;
+
+    Entitlements() {}
+
+    /**
+     * Registers a named entitlement. Defining a name again with the same rule returns the existing entitlement.
+     *
+     * @param name       The entitlement name
+     * @param expression The rule, see {@link EntitlementRule}
+     * @return The entitlement
+     * @throws IllegalArgumentException if the rule is malformed or the name is taken by a different rule
+     */
+    public Entitlement define(String name, String expression) {
+        EntitlementRule rule = EntitlementRule.compile(expression);
+        synchronized (lock) {
+            Entitlement existing = byName.get(name);
+            if (existing != null) {
+                if (existing.getRule().getExpression().equals(expression)) {
+                    return existing;
+                }
+                throw new IllegalArgumentException("Entitlement '" + name + "' is already defined");
+            }
+            rules = Arrays.copyOf(rules, rules.length + 1);
+            rules[rules.length - 1] = rule;
+            Entitlement entitlement = new Entitlement(this, rules.length - 1, name, rule);
+            state = evaluate(state.license);
+            byName.put(name, entitlement);
+            return entitlement;
+        }
+    }
+
+    /**
+     * Gets a named entitlement.
+     *
+     * @return The entitlement, or null if none has that name
+     */
+    public Entitlement get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Checks a named entitlement.
+     *
+     * @return true if the entitlement is defined and granted
+     */
+    public boolean isGranted(String name) {
+        Entitlement entitlement = byName.get(name);
+        return entitlement != null && entitlement.isGranted();
+    }
+
+    boolean isGranted(int index) {
+        State current = state;
+        if (System.currentTimeMillis() >= current.refreshAt) {
+            current = refresh(current);
+        }
+        return index < current.granted.length && current.granted[index];
+    }
+
+    void update(License license) {
+        synchronized (lock) {
+            state = evaluate(license);
+        }
+    }
+
+    private State refresh(State seen) {
+        synchronized (lock) {
+            if (state == seen) {
+                state = evaluate(seen.license);
+            }
+            return state;
+        }
+    }
+
+    // Caller holds lock.
+    private State evaluate(License license) {
+        if (license == null) {
+            return rules.length == 0 ? EMPTY : new State(null, new boolean[rules.length], Long.MAX_VALUE);
+        }
+        long now = System.currentTimeMillis();
+        boolean[] granted = new boolean[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            granted[i] = rules[i].test(license, now);
+        }
+        Instant expiresAt = Activation.parseInstant(license.getExpiresAt());
+        long refreshAt = expiresAt != null && expiresAt.toEpochMilli() > now ? expiresAt.toEpochMilli() : Long.MAX_VALUE;
+        return new State(license, granted, refreshAt);
+    }
+
+    private static final class State {
+        final License license;
+        final boolean[] granted;
+        final long refreshAt;
+
+        State(License license, boolean[] granted, long refreshAt) {
+            this.license = license;
+            this.granted = granted;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
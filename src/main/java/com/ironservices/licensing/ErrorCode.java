@@ -0,0 +1,154 @@
+package com.ironservices.licensing;
+
+/**
+ * Classifies why a request failed, so callers can branch without matching error strings.
+ */
+public enum ErrorCode {
+    /**
+     * The API could not be reached or the connection failed.
+     */
+    NETWORK(true),
+
+    /**
+     * The call ran past its deadline or a socket timeout.
+     */
+    TIMEOUT(true),
+
+    /**
+     * The client-side rate limiter refused the call, or the server answered 429.
+     */
+    RATE_LIMITED(true),
+
+    /**
+     * The call was cancelled by the caller.
+     */
+    CANCELLED(false),
+
+    /**
+     * The server failed with a 5xx status.
+     */
+    SERVER_ERROR(true),
+
+    /**
+     * The response could not be read.
+     */
+    INVALID_RESPONSE(true),
+
+    /**
+     * The license key does not exist.
+     */
+    INVALID_KEY(false),
+
+    /**
+     * The license has been revoked.
+     */
+    REVOKED(false),
+
+    /**
+     * The license or trial has expired.
+     */
+    EXPIRED(false),
+
+    /**
+     * The license is suspended.
+     */
+    SUSPENDED(false),
+
+    /**
+     * The license is already activated on as many machines as it allows.
+     */
+    MAX_ACTIVATIONS(false),
+
+    /**
+     * The machine is not activated on the license.
+     */
+    ACTIVATION_NOT_FOUND(false),
+
+    /**
+     * The public key or product was rejected.
+     */
+    UNAUTHORIZED(false),
+
+    /**
+     * The server rejected the request as invalid, e.g. an unknown tier or a missing email.
+     */
+    INVALID_REQUEST(false),
+
+    /**
+     * Any other failure.
+     */
+    UNKNOWN(false);
+
+    private final boolean retryable;
+
+    ErrorCode(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    /**
+     * Checks whether retrying the same request later may succeed.
+     *
+     * @return true for transient failures such as network errors, timeouts and rate limits
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Classifies a server error string, using the HTTP status when the string is not recognised.
+     *
+     * @param error      The API's error value, may be null
+     * @param httpStatus The HTTP status, or 0 if there was no response
+     * @return The error code
+     */
+    public static ErrorCode of(String error, int httpStatus) {
+        if (error != null) {
+            switch (error) {
+                case "license_not_found":
+                case "invalid_license":
+                case "invalid_license_key":
+                case "license_invalid":
+                    return INVALID_KEY;
+                case "license_revoked":
+                    return REVOKED;
+                case "license_expired":
+                case "license_trial_expired":
+                case "trial_expired":
+                    return EXPIRED;
+                case "license_suspended":
+                    return SUSPENDED;
+                case "max_activations_reached":
+                    return MAX_ACTIVATIONS;
+                case "activation_not_found":
+                    return ACTIVATION_NOT_FOUND;
+                case "rate_limited":
+                    return RATE_LIMITED;
+                case "invalid_public_key":
+                case "unauthorized":
+                    return UNAUTHORIZED;
+                case "timeout":
+                    return TIMEOUT;
+                case "cancelled":
+                    return CANCELLED;
+                default:
+                    break;
+            }
+        }
+        if (httpStatus == 429) {
+            return RATE_LIMITED;
+        }
+        if (httpStatus == 408) {
+            return TIMEOUT;
+        }
+        if (httpStatus == 401 || httpStatus == 403) {
+            return UNAUTHORIZED;
+        }
+        if (httpStatus >= 500) {
+            return SERVER_ERROR;
+        }
+        if (httpStatus >= 400) {
+            return INVALID_REQUEST;
+        }
+        return UNKNOWN;
+    }
+}
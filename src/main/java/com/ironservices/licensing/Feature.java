@@ -2,11 +2,19 @@ package com.ironservices.licensing;
 
 import com.google.gson.annotations.SerializedName;
 import java.util.Map;
+import java.util.Objects;
 
 /**
- * Represents a feature in a license.
+ * Represents a feature in a license. Instances are immutable.
  */
-public class Feature {
+public final class Feature {
+    /**
+     * Limit reported for features without a numeric cap.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final String LIMIT_KEY = "limit";
+
     @SerializedName("key")
     private String key;
 
@@ -19,55 +27,103 @@ public class Feature {
     @SerializedName("description")
     private String description;
 
+    @SerializedName("limit")
+    private Long limit;
+
     @SerializedName("metadata")
-    private Map<String, Object> metadata;
+    private Metadata metadata;
 
-    public Feature() {}
+    private Feature() {}
 
     public Feature(String key, String name, boolean enabled) {
-        this.key = key;
+        this(key, name, enabled, null, null);
+    }
+
+    public Feature(String key, String name, boolean enabled, String description, Map<String, Object> metadata) {
+        this(key, name, enabled, description, metadata, null);
+    }
+
+    /**
+     * Creates a feature with a numeric limit.
+     *
+     * @param limit The limit, or null (or a negative value) for unlimited
+     */
+    public Feature(String key, String name, boolean enabled, String description, Map<String, Object> metadata,
+                   Long limit) {
+        this.key = FeatureKeys.intern(key);
         this.name = name;
         this.enabled = enabled;
+        this.description = description;
+        this.metadata = Metadata.of(metadata);
+        this.limit = limit;
     }
 
-    public String getKey() {
-        return key;
+    /**
+     * Replaces the deserialized key with its shared instance. Called once, before the feature is published.
+     */
+    Feature internKey() {
+        key = FeatureKeys.intern(key);
+        return this;
     }
 
-    public void setKey(String key) {
-        this.key = key;
+    /**
+     * Checks if another feature has the same content.
+     */
+    boolean isEquivalentTo(Feature other) {
+        return other == this || other != null
+            && enabled == other.enabled
+            && Objects.equals(key, other.key)
+            && Objects.equals(name, other.name)
+            && Objects.equals(description, other.description)
+            && Objects.equals(limit, other.limit)
+            && Metadata.sameContent(metadata, other.metadata);
     }
 
-    public String getName() {
-        return name;
+    public String getKey() {
+        return key;
     }
 
-    public void setName(String name) {
-        this.name = name;
+    public String getName() {
+        return name;
     }
 
     public boolean isEnabled() {
         return enabled;
     }
 
-    public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
+    /**
+     * Gets the feature's numeric limit, such as a seat or project cap.
+     * Read from the "limit" field, falling back to a "limit" metadata entry. Metadata that does not mention
+     * the key is not parsed, so resolving limits on every license refresh keeps metadata lazy.
+     *
+     * @return The limit, or {@link #UNLIMITED} if the feature has none
+     */
+    public long getLimit() {
+        long value = limit != null ? limit
+            : metadata != null && metadata.mayHave(LIMIT_KEY) ? metadata.getLong(LIMIT_KEY, -1) : -1;
+        return value < 0 ? UNLIMITED : value;
     }
 
+    /**
+     * Gets the metadata decoded into a map. Prefer {@link #getMetadataView()} for reading single values.
+     *
+     * @return Unmodifiable map of metadata, or null if there is none
+     */
     public Map<String, Object> getMetadata() {
-        return metadata;
+        return metadata != null ? metadata.asMap() : null;
     }
 
-    public void setMetadata(Map<String, Object> metadata) {
-        this.metadata = metadata;
+    /**
+     * Gets the metadata with typed accessors that decode values on demand.
+     *
+     * @return The metadata, or null if there is none
+     */
+    public Metadata getMetadataView() {
+        return metadata;
     }
 
     @Override
@@ -0,0 +1,52 @@
+package com.ironservices.licensing;
+
+/**
+ * Result of checking a feature without throwing.
+ */
+public final class FeatureCheck {
+    private final String feature;
+    private final boolean allowed;
+    private final ProductTier suggestedTier;
+    private final boolean lightweight;
+
+    FeatureCheck(String feature, boolean allowed, ProductTier suggestedTier, boolean lightweight) {
+        this.feature = feature;
+        this.allowed = allowed;
+        this.suggestedTier = suggestedTier;
+        this.lightweight = lightweight;
+    }
+
+    public String getFeature() {
+        return feature;
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    /**
+     * Gets the cheapest tier that unlocks the feature when it was denied and the tier catalog was loaded.
+     *
+     * @return The suggested tier, or null
+     */
+    public ProductTier getSuggestedTier() {
+        return suggestedTier;
+    }
+
+    /**
+     * Throws if the feature was denied. The exception has no stack trace when
+     * {@link LicenseOptions#isLightweightExceptions()} is on.
+     *
+     * @throws LicenseRequiredException if the feature is not available
+     */
+    public void orThrow() throws LicenseRequiredException {
+        if (!allowed) {
+            throw new LicenseRequiredException(feature, suggestedTier, !lightweight);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FeatureCheck{feature='" + feature + "', allowed=" + allowed + "}";
+    }
+}
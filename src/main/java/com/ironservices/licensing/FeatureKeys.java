@@ -0,0 +1,29 @@
+package com.ironservices.licensing;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates feature key strings so every license that mentions a feature shares one instance.
+ * Bounded so a misbehaving server cannot grow it without limit; keys beyond the cap are kept as-is.
+ */
+final class FeatureKeys {
+    private static final int MAX_KEYS = 16_384;
+    private static final ConcurrentHashMap<String, String> KEYS = new ConcurrentHashMap<>();
+
+    private FeatureKeys() {}
+
+    static String intern(String key) {
+        if (key == null) {
+            return null;
+        }
+        String existing = KEYS.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (KEYS.size() >= MAX_KEYS) {
+            return key;
+        }
+        existing = KEYS.putIfAbsent(key, key);
+        return existing != null ? existing : key;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ironservices.licensing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feature limits and usage counters for one license, laid out as parallel arrays.
+ * Keys are sorted so lookups are a binary search with no hashing, boxing or allocation.
+ * When a new license replaces this one, features that remain keep the same counter objects, so usage
+ * recorded through the old quotas while the swap happens is not lost.
+ */
+final class FeatureQuotas {
+    static final FeatureQuotas EMPTY = new FeatureQuotas(new String[0], new long[0], new AtomicLong[0]);
+
+    private final String[] keys;
+    private final long[] limits;
+    private final AtomicLong[] usage;
+
+    private FeatureQuotas(String[] keys, long[] limits, AtomicLong[] usage) {
+        this.keys = keys;
+        this.limits = limits;
+        this.usage = usage;
+    }
+
+    /**
+     * Builds quotas for a license's enabled features, carrying over usage for features that remain.
+     */
+    static FeatureQuotas of(License license, FeatureQuotas previous) {
+        if (license == null || license.getFeatures() == null) {
+            return EMPTY;
+        }
+        List<Feature> enabled = new ArrayList<>();
+        for (Feature feature : license.getFeatures()) {
+            if (feature != null && feature.getKey() != null && feature.isEnabled()) {
+                enabled.add(feature);
+            }
+        }
+        enabled.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+
+        String[] keys = new String[enabled.size()];
+        long[] limits = new long[enabled.size()];
+        int count = 0;
+        for (Feature feature : enabled) {
+            if (count > 0 && keys[count - 1].equals(feature.getKey())) {
+                continue;
+            }
+            keys[count] = feature.getKey();
+            limits[count] = feature.getLimit();
+            count++;
+        }
+        AtomicLong[] usage = new AtomicLong[count];
+        for (int i = 0; i < count; i++) {
+            int carried = previous != null ? previous.indexOf(keys[i]) : -1;
+            usage[i] = carried >= 0 ? previous.usage[carried] : new AtomicLong();
+        }
+        return new FeatureQuotas(Arrays.copyOf(keys, count), Arrays.copyOf(limits, count), usage);
+    }
+
+    private int indexOf(String featureKey) {
+        return featureKey != null ? Arrays.binarySearch(keys, featureKey) : -1;
+    }
+
+    long getLimit(String featureKey) {
+        int i = indexOf(featureKey);
+        return i >= 0 ? limits[i] : 0;
+    }
+
+    long getUsage(String featureKey) {
+        int i = indexOf(featureKey);
+        return i >= 0 ? usage[i].get() : 0;
+    }
+
+    boolean tryConsume(String featureKey, long amount) {
+        int i = indexOf(featureKey);
+        if (i < 0) {
+            return false;
+        }
+        long limit = limits[i];
+        AtomicLong used = usage[i];
+        while (true) {
+            long current = used.get();
+            long next = current + amount;
+            if (next > limit || next < 0) {
+                return false;
+            }
+            if (used.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    void release(String featureKey, long amount) {
+        int i = indexOf(featureKey);
+        if (i < 0) {
+            return;
+        }
+        AtomicLong used = usage[i];
+        while (true) {
+            long current = used.get();
+            long next = Math.max(0, current - amount);
+            if (used.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
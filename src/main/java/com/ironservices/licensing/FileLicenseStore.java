@@ -0,0 +1,185 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+/**
+ * Stores one file per license key in a directory.
+ * Each file starts with a header line holding a format tag and an HMAC-SHA256 of the body, keyed by a random
+ * secret created in the directory on first save ({@code install.key}). A file copied from another install,
+ * edited by hand or left half written reads as missing. Anyone who can read the key file can still forge
+ * a record, so keep the directory private to the user running the application.
+ * Writes go to a temporary file that is synced and then renamed over the old one, so readers see either
+ * the previous or the new snapshot. File names are hashes, so keys do not appear in directory listings.
+ */
+public final class FileLicenseStore implements LicenseStore {
+    private static final String FORMAT = "IRLS2";
+    private static final String KEY_FILE = "install.key";
+
+    private final Path directory;
+    private final Gson gson = new Gson();
+    private volatile InstallKey installKey;
+
+    /**
+     * Creates a store in the given directory, which is created on first save.
+     *
+     * @param directory The directory holding snapshot files
+     */
+    public FileLicenseStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates the default store for a product, under {@code ~/.ironlicensing/store}.
+     *
+     * @param productSlug The product slug
+     * @return The store
+     */
+    public static FileLicenseStore forProduct(String productSlug) {
+        return new FileLicenseStore(Paths.get(System.getProperty("user.home"), ".ironlicensing", "store",
+            productSlug.replaceAll("[^A-Za-z0-9._-]", "_")));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public LicenseSnapshot load(String licenseKey) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(fileFor(licenseKey));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        String text = new String(content, StandardCharsets.UTF_8);
+        int newline = text.indexOf('\n');
+        if (newline < 0) {
+            return null;
+        }
+        String[] header = text.substring(0, newline).split(" ");
+        String body = text.substring(newline + 1);
+        InstallKey key = installKey(false);
+        if (header.length != 2 || !FORMAT.equals(header[0]) || key == null
+                || !key.verify(fromHex(header[1]), body.getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+        try {
+            JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+            if (!licenseKey.equals(json.get("licenseKey").getAsString())) {
+                return null;
+            }
+            License license = gson.fromJson(json.get("license"), License.class);
+            license.internFeatureKeys();
+            return new LicenseSnapshot(licenseKey, license,
+                Instant.ofEpochMilli(json.get("validatedAt").getAsLong()));
+        } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void save(LicenseSnapshot snapshot) throws IOException {
+        JsonObject json = new JsonObject();
+        json.addProperty("licenseKey", snapshot.getLicenseKey());
+        json.addProperty("validatedAt", snapshot.getValidatedAt().toEpochMilli());
+        json.add("license", gson.toJsonTree(snapshot.getLicense()));
+        String body = gson.toJson(json);
+        String mac = toHex(installKey(true).mac(body.getBytes(StandardCharsets.UTF_8)));
+        byte[] content = (FORMAT + " " + mac + "\n" + body).getBytes(StandardCharsets.UTF_8);
+
+        Files.createDirectories(directory);
+        Path target = fileFor(snapshot.getLicenseKey());
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(String licenseKey) throws IOException {
+        Files.deleteIfExists(fileFor(licenseKey));
+    }
+
+    private Path fileFor(String licenseKey) {
+        return directory.resolve(sha256(licenseKey).substring(0, 32) + ".license");
+    }
+
+    private InstallKey installKey(boolean create) throws IOException {
+        InstallKey key = installKey;
+        if (key == null) {
+            Path file = directory.resolve(KEY_FILE);
+            key = create ? InstallKey.readOrCreate(file) : InstallKey.read(file);
+            installKey = key;
+        }
+        return key;
+    }
+
+    private static String sha256(String value) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    // Returns null for malformed input, which then fails verification.
+    private static byte[] fromHex(String hex) {
+        if (hex.length() != InstallKey.MAC_SIZE * 2) {
+            return null;
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "FileLicenseStore{" + directory + "}";
+    }
+}
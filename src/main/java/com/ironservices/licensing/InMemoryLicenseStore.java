@@ -0,0 +1,34 @@
+package com.ironservices.licensing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps snapshots in the heap. State lasts only as long as the store instance, which suits tests and
+ * sharing one validation between clients in the same process.
+ */
+public final class InMemoryLicenseStore implements LicenseStore {
+    private final Map<String, LicenseSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Override
+    public LicenseSnapshot load(String licenseKey) {
+        return snapshots.get(licenseKey);
+    }
+
+    @Override
+    public void save(LicenseSnapshot snapshot) {
+        snapshots.put(snapshot.getLicenseKey(), snapshot);
+    }
+
+    @Override
+    public void delete(String licenseKey) {
+        snapshots.remove(licenseKey);
+    }
+
+    /**
+     * Gets the number of stored snapshots.
+     */
+    public int size() {
+        return snapshots.size();
+    }
+}
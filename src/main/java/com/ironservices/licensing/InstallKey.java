@@ -0,0 +1,105 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A random secret created once per installation, used to sign the records the SDK keeps on disk.
+ * A record copied from another machine, or edited without reading this key, fails verification.
+ * It does not protect against someone who can read the key file, which is created readable by its
+ * owner only where the file system supports POSIX permissions.
+ */
+final class InstallKey {
+    static final int MAC_SIZE = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SECRET_SIZE = 32;
+
+    private final SecretKeySpec secret;
+
+    private InstallKey(byte[] secret) {
+        this.secret = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * Reads the key from a file, or returns null if none has been created yet.
+     */
+    static InstallKey read(Path file) throws IOException {
+        byte[] secret;
+        try {
+            secret = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (secret.length != SECRET_SIZE) {
+            throw new IOException("Install key " + file + " is corrupt");
+        }
+        return new InstallKey(secret);
+    }
+
+    /**
+     * Reads the key from a file, creating it first if needed.
+     * Processes racing to create it agree on whichever file lands first.
+     */
+    static InstallKey readOrCreate(Path file) throws IOException {
+        InstallKey existing = read(file);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] secret = new byte[SECRET_SIZE];
+        new SecureRandom().nextBytes(secret);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system; the file keeps the directory's default permissions.
+            }
+            Files.write(temp, secret);
+            // A hard link never replaces an existing file, so the first complete key to land wins.
+            try {
+                Files.createLink(file, temp);
+            } catch (UnsupportedOperationException e) {
+                Files.move(temp, file);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Another process created it first.
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return read(file);
+    }
+
+    /**
+     * Computes the HMAC-SHA256 of the given parts, in order.
+     */
+    byte[] mac(byte[]... parts) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secret);
+            for (byte[] part : parts) {
+                mac.update(part);
+            }
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Checks a MAC in constant time.
+     */
+    boolean verify(byte[] expected, byte[]... parts) {
+        return expected != null && MessageDigest.isEqual(expected, mac(parts));
+    }
+}
@@ -1,12 +1,21 @@
 package com.ironservices.licensing;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Static facade for the IronLicensing SDK.
  * Provides a simple global API for license operations.
+ * <p>
+ * Swapping the client with {@link #reinit(LicenseOptions)} is invisible to callers: a network call that picked
+ * up the previous client just before it was closed is run again on the new one, and feature checks keep
+ * answering from the previous client's license until they move over.
  */
 public final class IronLicensing {
     private static volatile LicenseClient client;
@@ -26,13 +35,65 @@ public final class IronLicensing {
 
     /**
      * Initializes the global IronLicensing client with options.
+     * If a client is already bound, it is replaced as by {@link #reinit(LicenseOptions)}.
      *
      * @param options Configuration options
      */
     public static void init(LicenseOptions options) {
+        reinit(options);
+    }
+
+    /**
+     * Initializes the global client and warms it for a license key.
+     * A stored license is loaded immediately and validation and tiers are prefetched in the background;
+     * use {@link #awaitReady(Duration)} to wait for them.
+     *
+     * @param options    Configuration options
+     * @param licenseKey The license key to validate
+     */
+    public static void init(LicenseOptions options, String licenseKey) {
+        reinit(options);
+        call(c -> c.warmStart(licenseKey));
+    }
+
+    /**
+     * Waits for the prefetches started by {@link #init(LicenseOptions, String)} to finish.
+     *
+     * @param timeout How long to wait
+     * @return true if the client is ready, false if the timeout passed first
+     */
+    public static boolean awaitReady(Duration timeout) {
+        return requireClient().awaitReady(timeout);
+    }
+
+    /**
+     * Replaces the global client and closes the previous one.
+     *
+     * @param options Configuration options
+     */
+    public static void reinit(LicenseOptions options) {
+        LicenseClient previous;
         synchronized (lock) {
+            previous = client;
             client = new LicenseClient(options);
         }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Unbinds and closes the global client.
+     */
+    public static void shutdown() {
+        LicenseClient previous;
+        synchronized (lock) {
+            previous = client;
+            client = null;
+        }
+        if (previous != null) {
+            previous.close();
+        }
     }
 
     /**
@@ -44,14 +105,94 @@ public final class IronLicensing {
         return client;
     }
 
+    // Kept tiny so the JIT always inlines it: a single field load plus a null check folded into the call site.
+    // The throw lives in a separate method so it stays out of the hot path's bytecode.
     private static LicenseClient requireClient() {
         LicenseClient c = client;
         if (c == null) {
-            throw new IllegalStateException("IronLicensing not initialized. Call IronLicensing.init() first.");
+            throw notInitialized();
         }
         return c;
     }
 
+    private static IllegalStateException notInitialized() {
+        return new IllegalStateException("IronLicensing not initialized. Call IronLicensing.init() first.");
+    }
+
+    // Network operations throw IllegalStateException on a closed client. If the client was closed because
+    // reinit replaced it, the call is run again on the replacement; any other failure is rethrown.
+    private static <T> T call(Function<LicenseClient, T> operation) {
+        LicenseClient used = requireClient();
+        while (true) {
+            try {
+                return operation.apply(used);
+            } catch (IllegalStateException | RejectedExecutionException e) {
+                LicenseClient replacement = replacementFor(used);
+                if (replacement == null) {
+                    throw e;
+                }
+                used = replacement;
+            }
+        }
+    }
+
+    // As call, for operations whose failure may also arrive through the future. Cancelling the returned
+    // future cancels whichever attempt is running.
+    private static <T> CompletableFuture<T> callAsync(Function<LicenseClient, CompletableFuture<T>> operation) {
+        LicenseClient used = requireClient();
+        CompletableFuture<T> first;
+        try {
+            first = operation.apply(used);
+        } catch (IllegalStateException | RejectedExecutionException e) {
+            if (replacementFor(used) == null) {
+                throw e;
+            }
+            first = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        follow(first, used, operation, result);
+        return result;
+    }
+
+    private static <T> void follow(CompletableFuture<T> attempt, LicenseClient used,
+                                   Function<LicenseClient, CompletableFuture<T>> operation,
+                                   CompletableFuture<T> result) {
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException) {
+                attempt.cancel(true);
+            }
+        });
+        attempt.whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            boolean closed = cause instanceof IllegalStateException || cause instanceof RejectedExecutionException;
+            LicenseClient replacement = closed ? replacementFor(used) : null;
+            if (replacement == null) {
+                complete(result, value, error);
+                return;
+            }
+            CompletableFuture<T> retry;
+            try {
+                retry = operation.apply(replacement);
+            } catch (IllegalStateException | RejectedExecutionException e) {
+                retry = CompletableFuture.failedFuture(e);
+            }
+            follow(retry, replacement, operation, result);
+        });
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    private static LicenseClient replacementFor(LicenseClient used) {
+        LicenseClient current = client;
+        return current != null && current != used && used.isClosed() ? current : null;
+    }
+
     /**
      * Validates a license key.
      *
@@ -59,7 +200,7 @@ public final class IronLicensing {
      * @return The validation result
      */
     public static LicenseResult validate(String licenseKey) {
-        return requireClient().validate(licenseKey);
+        return call(c -> c.validate(licenseKey));
     }
 
     /**
@@ -69,7 +210,7 @@ public final class IronLicensing {
      * @return A CompletableFuture with the validation result
      */
     public static CompletableFuture<LicenseResult> validateAsync(String licenseKey) {
-        return requireClient().validateAsync(licenseKey);
+        return callAsync(c -> c.validateAsync(licenseKey));
     }
 
     /**
@@ -79,7 +220,7 @@ public final class IronLicensing {
      * @return The activation result
      */
     public static LicenseResult activate(String licenseKey) {
-        return requireClient().activate(licenseKey);
+        return call(c -> c.activate(licenseKey));
     }
 
     /**
@@ -90,7 +231,7 @@ public final class IronLicensing {
      * @return The activation result
      */
     public static LicenseResult activate(String licenseKey, String machineName) {
-        return requireClient().activate(licenseKey, machineName);
+        return call(c -> c.activate(licenseKey, machineName));
     }
 
     /**
@@ -99,7 +240,7 @@ public final class IronLicensing {
      * @return true if deactivation was successful
      */
     public static boolean deactivate() {
-        return requireClient().deactivate();
+        return call(c -> c.deactivate());
     }
 
     /**
@@ -109,7 +250,7 @@ public final class IronLicensing {
      * @return The trial result
      */
     public static LicenseResult startTrial(String email) {
-        return requireClient().startTrial(email);
+        return call(c -> c.startTrial(email));
     }
 
     /**
@@ -132,6 +273,16 @@ public final class IronLicensing {
         requireClient().requireFeature(featureKey);
     }
 
+    /**
+     * Checks a feature without throwing.
+     *
+     * @param featureKey The feature key to check
+     * @return The check result
+     */
+    public static FeatureCheck checkFeature(String featureKey) {
+        return requireClient().checkFeature(featureKey);
+    }
+
     /**
      * Gets a feature from the current license.
      *
@@ -184,7 +335,7 @@ public final class IronLicensing {
      * @return List of product tiers
      */
     public static List<ProductTier> getTiers() {
-        return requireClient().getTiers();
+        return call(c -> c.getTiers());
     }
 
     /**
@@ -195,7 +346,7 @@ public final class IronLicensing {
      * @return The checkout result
      */
     public static CheckoutResult startPurchase(String tierId, String email) {
-        return requireClient().startPurchase(tierId, email);
+        return call(c -> c.startPurchase(tierId, email));
     }
 
     /**
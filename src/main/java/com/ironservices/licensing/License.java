@@ -1,14 +1,19 @@
 package com.ironservices.licensing;
 
 import com.google.gson.annotations.SerializedName;
-import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
- * Represents license information.
+ * Represents license information. Instances are immutable and safe to share between threads;
+ * use {@link #builder()} to construct one.
  */
-public class License {
+public final class License {
+    private static final Feature[] NO_FEATURES = new Feature[0];
+
     @SerializedName("id")
     private String id;
 
@@ -31,7 +36,7 @@ public class License {
     private String company;
 
     @SerializedName("features")
-    private List<Feature> features;
+    private Feature[] features;
 
     @SerializedName("maxActivations")
     private int maxActivations;
@@ -49,138 +54,254 @@ public class License {
     private String lastValidatedAt;
 
     @SerializedName("metadata")
-    private Map<String, Object> metadata;
+    private Metadata metadata;
 
-    public License() {}
+    private License() {}
 
-    public String getId() {
-        return id;
+    public static Builder builder() {
+        return new Builder();
     }
 
-    public void setId(String id) {
-        this.id = id;
+    /**
+     * Creates the placeholder published when no license is active.
+     */
+    static License notActivated() {
+        return builder().status(LicenseStatus.NOT_ACTIVATED).build();
     }
 
-    public String getKey() {
-        return key;
+    /**
+     * Swaps deserialized feature keys for their shared instances. Called once, before the license is published.
+     */
+    License internFeatureKeys() {
+        if (features != null) {
+            for (Feature feature : features) {
+                if (feature != null) {
+                    feature.internKey();
+                }
+            }
+        }
+        return this;
     }
 
-    public void setKey(String key) {
-        this.key = key;
+    /**
+     * Checks if another license grants exactly what this one does. The last validation time is ignored, so a
+     * routine revalidation does not count as a change.
+     */
+    boolean isEquivalentTo(License other) {
+        if (other == this) return true;
+        if (other == null
+                || status != other.status
+                || type != other.type
+                || maxActivations != other.maxActivations
+                || currentActivations != other.currentActivations
+                || !Objects.equals(id, other.id)
+                || !Objects.equals(key, other.key)
+                || !Objects.equals(email, other.email)
+                || !Objects.equals(name, other.name)
+                || !Objects.equals(company, other.company)
+                || !Objects.equals(expiresAt, other.expiresAt)
+                || !Objects.equals(createdAt, other.createdAt)
+                || !Metadata.sameContent(metadata, other.metadata)) {
+            return false;
+        }
+        if (features == null || other.features == null) {
+            return features == other.features;
+        }
+        if (features.length != other.features.length) {
+            return false;
+        }
+        for (int i = 0; i < features.length; i++) {
+            Feature feature = features[i];
+            if (feature == null ? other.features[i] != null : !feature.isEquivalentTo(other.features[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public LicenseStatus getStatus() {
-        return status;
+    public String getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
     }
 
-    public void setStatus(LicenseStatus status) {
-        this.status = status;
+    public LicenseStatus getStatus() {
+        return status;
     }
 
     public LicenseType getType() {
         return type;
     }
 
-    public void setType(LicenseType type) {
-        this.type = type;
-    }
-
     public String getEmail() {
         return email;
     }
 
-    public void setEmail(String email) {
-        this.email = email;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getCompany() {
         return company;
     }
 
-    public void setCompany(String company) {
-        this.company = company;
-    }
-
     public List<Feature> getFeatures() {
-        return features;
-    }
-
-    public void setFeatures(List<Feature> features) {
-        this.features = features;
+        if (features == null) return null;
+        return Collections.unmodifiableList(Arrays.asList(features));
     }
 
     public int getMaxActivations() {
         return maxActivations;
     }
 
-    public void setMaxActivations(int maxActivations) {
-        this.maxActivations = maxActivations;
-    }
-
     public int getCurrentActivations() {
         return currentActivations;
     }
 
-    public void setCurrentActivations(int currentActivations) {
-        this.currentActivations = currentActivations;
-    }
-
     public String getExpiresAt() {
         return expiresAt;
     }
 
-    public void setExpiresAt(String expiresAt) {
-        this.expiresAt = expiresAt;
-    }
-
     public String getCreatedAt() {
         return createdAt;
     }
 
-    public void setCreatedAt(String createdAt) {
-        this.createdAt = createdAt;
-    }
-
     public String getLastValidatedAt() {
         return lastValidatedAt;
     }
 
-    public void setLastValidatedAt(String lastValidatedAt) {
-        this.lastValidatedAt = lastValidatedAt;
-    }
-
+    /**
+     * Gets the metadata decoded into a map. Prefer {@link #getMetadataView()} for reading single values.
+     *
+     * @return Unmodifiable map of metadata, or null if there is none
+     */
     public Map<String, Object> getMetadata() {
-        return metadata;
+        return metadata != null ? metadata.asMap() : null;
     }
 
-    public void setMetadata(Map<String, Object> metadata) {
-        this.metadata = metadata;
+    /**
+     * Gets the metadata with typed accessors that decode values on demand.
+     *
+     * @return The metadata, or null if there is none
+     */
+    public Metadata getMetadataView() {
+        return metadata;
     }
 
     public boolean hasFeature(String featureKey) {
-        if (features == null) return false;
-        return features.stream()
-            .anyMatch(f -> f.getKey().equals(featureKey) && f.isEnabled());
+        Feature feature = getFeature(featureKey);
+        return feature != null && feature.isEnabled();
     }
 
     public Feature getFeature(String featureKey) {
         if (features == null) return null;
-        return features.stream()
-            .filter(f -> f.getKey().equals(featureKey))
-            .findFirst()
-            .orElse(null);
+        for (Feature feature : features) {
+            // Keys are interned, so the identity check hits first for keys that came from the API.
+            String key = feature.getKey();
+            if (key == featureKey || (key != null && key.equals(featureKey))) {
+                return feature;
+            }
+        }
+        return null;
     }
 
     @Override
     public String toString() {
         return "License{id='" + id + "', key='" + key + "', status=" + status + ", type=" + type + "}";
     }
+
+    public static class Builder {
+        private final License license = new License();
+
+        public Builder id(String id) {
+            license.id = id;
+            return this;
+        }
+
+        public Builder key(String key) {
+            license.key = key;
+            return this;
+        }
+
+        public Builder status(LicenseStatus status) {
+            license.status = status;
+            return this;
+        }
+
+        public Builder type(LicenseType type) {
+            license.type = type;
+            return this;
+        }
+
+        public Builder email(String email) {
+            license.email = email;
+            return this;
+        }
+
+        public Builder name(String name) {
+            license.name = name;
+            return this;
+        }
+
+        public Builder company(String company) {
+            license.company = company;
+            return this;
+        }
+
+        public Builder features(List<Feature> features) {
+            license.features = features != null ? features.toArray(NO_FEATURES) : null;
+            return this;
+        }
+
+        public Builder maxActivations(int maxActivations) {
+            license.maxActivations = maxActivations;
+            return this;
+        }
+
+        public Builder currentActivations(int currentActivations) {
+            license.currentActivations = currentActivations;
+            return this;
+        }
+
+        public Builder expiresAt(String expiresAt) {
+            license.expiresAt = expiresAt;
+            return this;
+        }
+
+        public Builder createdAt(String createdAt) {
+            license.createdAt = createdAt;
+            return this;
+        }
+
+        public Builder lastValidatedAt(String lastValidatedAt) {
+            license.lastValidatedAt = lastValidatedAt;
+            return this;
+        }
+
+        public Builder metadata(Map<String, Object> metadata) {
+            license.metadata = Metadata.of(metadata);
+            return this;
+        }
+
+        public License build() {
+            License built = new License();
+            built.id = license.id;
+            built.key = license.key;
+            built.status = license.status;
+            built.type = license.type;
+            built.email = license.email;
+            built.name = license.name;
+            built.company = license.company;
+            built.features = license.features;
+            built.maxActivations = license.maxActivations;
+            built.currentActivations = license.currentActivations;
+            built.expiresAt = license.expiresAt;
+            built.createdAt = license.createdAt;
+            built.lastValidatedAt = license.lastValidatedAt;
+            built.metadata = license.metadata;
+            return built.internFeatureKeys();
+        }
+    }
 }
@@ -1,21 +1,70 @@
 package com.ironservices.licensing;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Main client for the IronLicensing SDK.
- * Thread-safe and can be used concurrently.
+ * Thread-safe and can be used concurrently. Close the client when it is no longer
+ * needed to release its HTTP threads and connections.
  */
-public class LicenseClient {
+public class LicenseClient implements AutoCloseable {
+    private static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(5);
+    private static final long FOLLOWER_POLL_MILLIS = 20;
+    private static final int DEFAULT_ACTIVATION_PAGE_SIZE = 100;
+    private static final int DEACTIVATION_BATCH_SIZE = 100;
+    private static final long SNAPSHOT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final LicenseOptions options;
     private final Transport transport;
+    private final Log log;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
-
-    private License currentLicense;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Executor asyncExecutor;
+    private final ExecutorService ownedExecutor;
+    private final LicensePublisher publisher;
+    private final TierCatalog tierCatalog;
+    private final SharedLicenseCache sharedCache;
+    private final RefreshLeadership leadership;
+    private final ActivationReclaimer reclaimer;
+    private final LicenseStore store;
+    private volatile LicenseSnapshot lastSnapshot;
+    private volatile CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+
+    // Written under the write lock together with licenseKey; volatile so single reads such as feature
+    // checks need no lock at all.
+    private volatile License currentLicense;
+    private volatile FeatureQuotas quotas = FeatureQuotas.EMPTY;
+    private final Entitlements entitlements = new Entitlements();
     private String licenseKey;
     private Consumer<License> onLicenseChanged;
 
@@ -26,10 +75,26 @@ public class LicenseClient {
      */
     public LicenseClient(LicenseOptions options) {
         this.options = options;
-        this.transport = new Transport(options);
-        if (options.isDebug()) {
-            log("Client initialized");
+        this.log = Log.of(options);
+        this.transport = new Transport(options, log);
+        if (options.getAsyncExecutor() != null) {
+            this.asyncExecutor = options.getAsyncExecutor();
+            this.ownedExecutor = null;
+        } else if (options.isUseVirtualThreads() && VirtualThreads.isAvailable()) {
+            this.ownedExecutor = VirtualThreads.newExecutor();
+            this.asyncExecutor = ownedExecutor;
+        } else {
+            this.asyncExecutor = ForkJoinPool.commonPool();
+            this.ownedExecutor = null;
         }
+        this.publisher = new LicensePublisher(asyncExecutor);
+        this.tierCatalog = new TierCatalog(transport, asyncExecutor, options, log);
+        this.sharedCache = options.isSharedCache() ? SharedLicenseCache.open(options.getProductSlug(), transport.getMachineId(), log) : null;
+        this.leadership = sharedCache != null ? RefreshLeadership.open(options.getProductSlug(), log) : null;
+        this.reclaimer = new ActivationReclaimer(transport, options, log);
+        this.store = options.getLicenseStore() != null ? options.getLicenseStore()
+            : options.isEnableOfflineCache() ? FileLicenseStore.forProduct(options.getProductSlug()) : null;
+        log.debug("Client initialized");
     }
 
     /**
@@ -42,14 +107,15 @@ public class LicenseClient {
         this(new LicenseOptions(publicKey, productSlug));
     }
 
-    private void log(String message) {
-        if (options.isDebug()) {
-            System.out.println("[IronLicensing] " + message);
+    private void ensureOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("LicenseClient is closed");
         }
     }
 
     /**
      * Sets a listener for license changes.
+     * A revalidation that returns the same license is not a change and does not call the listener.
      *
      * @param listener The listener to call when license changes
      */
@@ -57,20 +123,146 @@ public class LicenseClient {
         this.onLicenseChanged = listener;
     }
 
+    /**
+     * Gets a publisher of license changes.
+     * Subscribers receive the current license on subscribe (if one has been loaded) and every later change,
+     * honouring their requested demand. Updates are conflated, so a slow subscriber only sees the latest license.
+     * A revalidation that returns the same license is not published.
+     * Because reactive streams do not allow null, deactivation is published as a license whose status is
+     * {@link LicenseStatus#NOT_ACTIVATED}. Subscribers are completed when the client is closed.
+     *
+     * @return The license publisher
+     */
+    public Flow.Publisher<License> getLicensePublisher() {
+        return publisher;
+    }
+
     /**
      * Validates a license key.
+     * With {@link LicenseOptions#isSharedCache()} enabled, a license recently validated by another process
+     * on this host is returned as a cached result instead, and only one process at a time calls the API.
      *
      * @param licenseKey The license key to validate
      * @return The validation result
      */
     public LicenseResult validate(String licenseKey) {
-        LicenseResult result = transport.validate(licenseKey);
-        if (result.isValid() && result.getLicense() != null) {
+        return validate(licenseKey, transport.interactive());
+    }
+
+    /**
+     * Validates a license key within a deadline.
+     * If the deadline passes, or the call fails for another {@linkplain ErrorCode#isRetryable() transient}
+     * reason, the license already loaded for this key is returned as a cached result, or failing that the
+     * {@linkplain LicenseOptions#getLicenseStore() stored} snapshot if it is within the offline grace period;
+     * with neither the result fails with {@link ErrorCode#TIMEOUT}.
+     *
+     * @param licenseKey The license key to validate
+     * @param timeout    The overall budget for the call
+     * @return The validation result
+     */
+    public LicenseResult validate(String licenseKey, Duration timeout) {
+        return validate(licenseKey, RequestContext.withTimeout(timeout));
+    }
+
+    private LicenseResult validate(String licenseKey, RequestContext context) {
+        ensureOpen();
+        if (sharedCache != null) {
+            return refreshShared(licenseKey, false, context, () -> validateRemote(licenseKey, context));
+        }
+        LicenseResult result = validateRemote(licenseKey, context);
+        if (result.isValid() && !result.isCached() && result.getLicense() != null) {
             updateLicense(licenseKey, result.getLicense());
+            saveSnapshot(licenseKey, result.getLicense());
         }
         return result;
     }
 
+    // After a transient failure (refused, timed out, unreachable) the license already loaded for this key,
+    // or failing that a stored snapshot within the offline grace period, is still the best answer;
+    // definitive answers such as a revoked key are returned as they are.
+    private LicenseResult validateRemote(String licenseKey, RequestContext context) {
+        LicenseResult result = transport.validate(licenseKey, context);
+        if (result.isValid() || !result.getErrorCode().isRetryable()) {
+            return result;
+        }
+        License loaded;
+        lock.readLock().lock();
+        try {
+            loaded = licenseKey.equals(this.licenseKey) ? currentLicense : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (loaded == null) {
+            LicenseSnapshot snapshot = loadSnapshot(licenseKey);
+            if (snapshot == null || !snapshot.isFresherThan(Duration.ofDays(options.getOfflineGraceDays()))) {
+                return result;
+            }
+            log.debug("Using stored license validated at {0}", snapshot.getValidatedAt());
+            loaded = snapshot.getLicense();
+            updateLicense(licenseKey, loaded);
+        }
+        LicenseResult cached = LicenseResult.success(loaded);
+        cached.setCached(true);
+        return cached;
+    }
+
+    // Serves a fresh shared record if there is one. Otherwise the process holding the host-wide lease calls the
+    // API and publishes, while the others poll the shared cache until the deadline and then call the API themselves.
+    private LicenseResult refreshShared(String licenseKey, boolean activation, RequestContext context,
+                                        Supplier<LicenseResult> fetch) {
+        long deadline = System.nanoTime()
+            + Math.min(options.getSharedRefreshWait().toNanos(), Math.max(0, context.remainingNanos()));
+        while (true) {
+            LicenseResult shared = readSharedCache(licenseKey, activation);
+            if (shared != null) {
+                return shared;
+            }
+            try (RefreshLeadership.Lease lease = leadership != null ? leadership.tryAcquire() : null) {
+                if (lease != null || leadership == null) {
+                    // The previous leader may have published between the read above and taking the lease.
+                    shared = readSharedCache(licenseKey, activation);
+                    return shared != null ? shared : fetchAndPublish(licenseKey, activation, fetch);
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            try {
+                Thread.sleep(FOLLOWER_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.debug("Gave up waiting for another process to refresh the license");
+        return fetchAndPublish(licenseKey, activation, fetch);
+    }
+
+    private LicenseResult fetchAndPublish(String licenseKey, boolean activation, Supplier<LicenseResult> fetch) {
+        LicenseResult result = fetch.get();
+        if (result.isValid() && !result.isCached() && result.getLicense() != null) {
+            updateLicense(licenseKey, result.getLicense());
+            saveSnapshot(licenseKey, result.getLicense());
+            sharedCache.write(licenseKey, result.getLicense(), activation);
+        }
+        return result;
+    }
+
+    private LicenseResult readSharedCache(String licenseKey, boolean activation) {
+        License license = sharedCache.read(licenseKey,
+            TimeUnit.MINUTES.toMillis(options.getCacheValidationMinutes()), activation);
+        if (license == null) {
+            return null;
+        }
+        // The decoded license is reused while the record is unchanged, so listeners only hear about real updates.
+        if (license != getLicense()) {
+            updateLicense(licenseKey, license);
+        }
+        LicenseResult result = LicenseResult.success(license);
+        result.setCached(true);
+        return result;
+    }
+
     /**
      * Validates a license key asynchronously.
      *
@@ -78,7 +270,78 @@ public class LicenseClient {
      * @return A CompletableFuture with the validation result
      */
     public CompletableFuture<LicenseResult> validateAsync(String licenseKey) {
-        return CompletableFuture.supplyAsync(() -> validate(licenseKey));
+        return supplyCancellable(transport.interactive(), context -> validate(licenseKey, context));
+    }
+
+    /**
+     * Validates a license key asynchronously within a deadline.
+     * Cancelling the returned future cancels the HTTP call.
+     *
+     * @param licenseKey The license key to validate
+     * @param timeout    The overall budget, counted from now
+     * @return A CompletableFuture with the validation result
+     */
+    public CompletableFuture<LicenseResult> validateAsync(String licenseKey, Duration timeout) {
+        return supplyCancellable(RequestContext.withTimeout(timeout), context -> validate(licenseKey, context));
+    }
+
+    // Cancelling the future cancels the in-flight call, or stops it from starting if it is still queued.
+    private <T> CompletableFuture<T> supplyCancellable(RequestContext context, Function<RequestContext, T> task) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> task.apply(context), asyncExecutor);
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                context.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Starts the client warm for a license key.
+     * A stored snapshot within the offline grace period is loaded straight away, so feature checks answer from
+     * the last known license while validation and the tier catalog are fetched in parallel in the background.
+     *
+     * @param licenseKey The license key to validate
+     * @return A future that completes when both prefetches have finished, whether or not they succeeded
+     */
+    public CompletableFuture<Void> warmStart(String licenseKey) {
+        ensureOpen();
+        LicenseSnapshot snapshot = loadSnapshot(licenseKey);
+        if (snapshot != null && snapshot.isFresherThan(Duration.ofDays(options.getOfflineGraceDays()))) {
+            updateLicense(licenseKey, snapshot.getLicense());
+            lastSnapshot = snapshot;
+            log.debug("Loaded stored license validated at {0}", snapshot.getValidatedAt());
+        }
+        CompletableFuture<Void> prefetch = CompletableFuture.allOf(validateAsync(licenseKey), getTiersAsync())
+            .handle((ignored, error) -> {
+                if (error != null) {
+                    log.warn("Warm start prefetch failed: {0}", error.getMessage());
+                }
+                return null;
+            });
+        ready = prefetch;
+        return prefetch;
+    }
+
+    /**
+     * Waits for the prefetches started by {@link #warmStart(String)} to finish.
+     * Returns immediately if no warm start is in progress.
+     *
+     * @param timeout How long to wait
+     * @return true if the client is ready, false if the timeout passed first
+     */
+    public boolean awaitReady(Duration timeout) {
+        try {
+            ready.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
     }
 
     /**
@@ -93,19 +356,79 @@ public class LicenseClient {
 
     /**
      * Activates a license key on this machine with a custom machine name.
+     * With {@link LicenseOptions#isSharedCache()} enabled, processes on the same host share one machine ID,
+     * so a key recently activated by another of them is returned as a cached result instead.
      *
      * @param licenseKey  The license key to activate
      * @param machineName Optional machine name
      * @return The activation result
      */
     public LicenseResult activate(String licenseKey, String machineName) {
-        LicenseResult result = transport.activate(licenseKey, machineName);
+        return activate(licenseKey, machineName, transport.interactive());
+    }
+
+    /**
+     * Activates a license key on this machine within a deadline.
+     *
+     * @param licenseKey  The license key to activate
+     * @param machineName Optional machine name
+     * @param timeout     The overall budget for the call
+     * @return The activation result
+     */
+    public LicenseResult activate(String licenseKey, String machineName, Duration timeout) {
+        return activate(licenseKey, machineName, RequestContext.withTimeout(timeout));
+    }
+
+    private LicenseResult activate(String licenseKey, String machineName, RequestContext context) {
+        ensureOpen();
+        if (sharedCache != null) {
+            return refreshShared(licenseKey, true, context, () -> activateReclaiming(licenseKey, machineName, context));
+        }
+        LicenseResult result = activateReclaiming(licenseKey, machineName, context);
         if (result.isValid() && result.getLicense() != null) {
             updateLicense(licenseKey, result.getLicense());
+            saveSnapshot(licenseKey, result.getLicense());
         }
         return result;
     }
 
+    private LicenseResult activateReclaiming(String licenseKey, String machineName, RequestContext context) {
+        LicenseResult result = transport.activate(licenseKey, machineName, context);
+        Duration idle = options.getReclaimIdleAfter();
+        if (idle == null || result.isValid() || result.getErrorCode() != ErrorCode.MAX_ACTIVATIONS) {
+            return result;
+        }
+        if (reclaimer.reclaim(licenseKey, idle, context).isEmpty()) {
+            return result;
+        }
+        return transport.activate(licenseKey, machineName, context);
+    }
+
+    /**
+     * Deactivates every machine on a license that has not been seen for longer than the threshold.
+     * This machine is never reclaimed, and neither are machines whose last-seen time cannot be parsed.
+     * Batches are paced by {@link LicenseOptions#getReclaimBatchesPerSecond()}.
+     *
+     * @param licenseKey    The license key
+     * @param idleThreshold How long a machine must have been silent to be reclaimed
+     * @return The machine IDs that were deactivated
+     */
+    public Set<String> reclaimStaleActivations(String licenseKey, Duration idleThreshold) {
+        ensureOpen();
+        return reclaimer.reclaim(licenseKey, idleThreshold, null);
+    }
+
+    /**
+     * Reclaims stale activations asynchronously.
+     *
+     * @param licenseKey    The license key
+     * @param idleThreshold How long a machine must have been silent to be reclaimed
+     * @return A CompletableFuture with the deactivated machine IDs
+     */
+    public CompletableFuture<Set<String>> reclaimStaleActivationsAsync(String licenseKey, Duration idleThreshold) {
+        return CompletableFuture.supplyAsync(() -> reclaimStaleActivations(licenseKey, idleThreshold), asyncExecutor);
+    }
+
     /**
      * Activates a license key asynchronously.
      *
@@ -114,7 +437,7 @@ public class LicenseClient {
      * @return A CompletableFuture with the activation result
      */
     public CompletableFuture<LicenseResult> activateAsync(String licenseKey, String machineName) {
-        return CompletableFuture.supplyAsync(() -> activate(licenseKey, machineName));
+        return supplyCancellable(transport.interactive(), context -> activate(licenseKey, machineName, context));
     }
 
     /**
@@ -123,6 +446,11 @@ public class LicenseClient {
      * @return true if deactivation was successful
      */
     public boolean deactivate() {
+        return deactivate(transport.interactive());
+    }
+
+    private boolean deactivate(RequestContext context) {
+        ensureOpen();
         lock.readLock().lock();
         String key;
         try {
@@ -135,27 +463,123 @@ public class LicenseClient {
             return false;
         }
 
-        if (transport.deactivate(key)) {
-            lock.writeLock().lock();
-            try {
-                this.currentLicense = null;
-                this.licenseKey = null;
-            } finally {
-                lock.writeLock().unlock();
-            }
-            notifyLicenseChanged(null);
+        if (transport.deactivate(key, context)) {
+            clearLicense();
             return true;
         }
         return false;
     }
 
+    private void clearLicense() {
+        String key;
+        boolean changed;
+        lock.writeLock().lock();
+        try {
+            key = this.licenseKey;
+            changed = key != null || currentLicense != null;
+            this.currentLicense = null;
+            this.quotas = FeatureQuotas.EMPTY;
+            this.licenseKey = null;
+            entitlements.update(null);
+            if (changed) {
+                publisher.submit(License.notActivated());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (key != null) {
+            deleteSnapshot(key);
+        }
+        if (changed) {
+            notifyListener(null);
+        }
+    }
+
+    /**
+     * Lists every activation of a license, fetching pages lazily as the stream is consumed.
+     *
+     * @param licenseKey The license key
+     * @return A sequential stream of activations; network failures surface as {@link java.io.UncheckedIOException}
+     */
+    public Stream<Activation> listActivations(String licenseKey) {
+        return listActivations(licenseKey, DEFAULT_ACTIVATION_PAGE_SIZE);
+    }
+
+    /**
+     * Lists every activation of a license, fetching pages lazily as the stream is consumed.
+     *
+     * @param licenseKey The license key
+     * @param pageSize   How many activations to request per page
+     * @return A sequential stream of activations; network failures surface as {@link java.io.UncheckedIOException}
+     */
+    public Stream<Activation> listActivations(String licenseKey, int pageSize) {
+        ensureOpen();
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        Iterator<Activation> pages = new ActivationIterator(transport, licenseKey, pageSize, transport::interactive);
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Deactivates several machines from the current license.
+     *
+     * @param machineIds The machine IDs to deactivate
+     * @return The machine IDs that were deactivated; any others were not
+     */
+    public Set<String> deactivateMachines(Collection<String> machineIds) {
+        String key = currentLicenseKey();
+        if (key == null || key.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return deactivateMachines(key, machineIds);
+    }
+
+    /**
+     * Deactivates several machines from a license, in batches.
+     * If a batch fails, the remaining machines are left active and are missing from the result.
+     * Deactivating this machine clears the current license.
+     *
+     * @param licenseKey The license key
+     * @param machineIds The machine IDs to deactivate
+     * @return The machine IDs that were deactivated; any others were not
+     */
+    public Set<String> deactivateMachines(String licenseKey, Collection<String> machineIds) {
+        ensureOpen();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(machineIds));
+        Set<String> deactivated = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += DEACTIVATION_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + DEACTIVATION_BATCH_SIZE));
+            try {
+                deactivated.addAll(transport.deactivateMachines(licenseKey, batch, transport.interactive()));
+            } catch (IOException e) {
+                log.warn("Batch deactivation stopped: {0}", e.getMessage());
+                break;
+            }
+        }
+        if (deactivated.contains(transport.getMachineId()) && licenseKey.equals(currentLicenseKey())) {
+            clearLicense();
+        }
+        return deactivated;
+    }
+
+    private String currentLicenseKey() {
+        lock.readLock().lock();
+        try {
+            return licenseKey;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     /**
      * Deactivates the current license asynchronously.
      *
      * @return A CompletableFuture with the deactivation result
      */
     public CompletableFuture<Boolean> deactivateAsync() {
-        return CompletableFuture.supplyAsync(this::deactivate);
+        return supplyCancellable(transport.interactive(), this::deactivate);
     }
 
     /**
@@ -165,9 +589,15 @@ public class LicenseClient {
      * @return The trial result
      */
     public LicenseResult startTrial(String email) {
-        LicenseResult result = transport.startTrial(email);
+        return startTrial(email, transport.interactive());
+    }
+
+    private LicenseResult startTrial(String email, RequestContext context) {
+        ensureOpen();
+        LicenseResult result = transport.startTrial(email, context);
         if (result.isValid() && result.getLicense() != null) {
             updateLicense(result.getLicense().getKey(), result.getLicense());
+            saveSnapshot(result.getLicense().getKey(), result.getLicense());
         }
         return result;
     }
@@ -179,7 +609,7 @@ public class LicenseClient {
      * @return A CompletableFuture with the trial result
      */
     public CompletableFuture<LicenseResult> startTrialAsync(String email) {
-        return CompletableFuture.supplyAsync(() -> startTrial(email));
+        return supplyCancellable(transport.interactive(), context -> startTrial(email, context));
     }
 
     /**
@@ -189,12 +619,8 @@ public class LicenseClient {
      * @return true if the feature is enabled
      */
     public boolean hasFeature(String featureKey) {
-        lock.readLock().lock();
-        try {
-            return currentLicense != null && currentLicense.hasFeature(featureKey);
-        } finally {
-            lock.readLock().unlock();
-        }
+        License license = currentLicense;
+        return license != null && license.hasFeature(featureKey);
     }
 
     /**
@@ -205,10 +631,30 @@ public class LicenseClient {
      */
     public void requireFeature(String featureKey) throws LicenseRequiredException {
         if (!hasFeature(featureKey)) {
-            throw new LicenseRequiredException(featureKey);
+            throw new LicenseRequiredException(featureKey, suggestTier(featureKey),
+                !options.isLightweightExceptions());
         }
     }
 
+    /**
+     * Checks a feature without throwing.
+     *
+     * @param featureKey The feature key to check
+     * @return The check result, with a suggested tier when denied
+     */
+    public FeatureCheck checkFeature(String featureKey) {
+        if (hasFeature(featureKey)) {
+            return new FeatureCheck(featureKey, true, null, options.isLightweightExceptions());
+        }
+        return new FeatureCheck(featureKey, false, suggestTier(featureKey), options.isLightweightExceptions());
+    }
+
+    // Upsell hint from the already-loaded catalog only; a missing feature must never trigger a fetch.
+    private ProductTier suggestTier(String featureKey) {
+        TierCatalog.Snapshot tiers = tierCatalog.peek();
+        return tiers != null ? tiers.matrix.cheapestTierFor(featureKey) : null;
+    }
+
     /**
      * Gets a feature from the current license.
      *
@@ -216,15 +662,71 @@ public class LicenseClient {
      * @return The feature, or null if not found
      */
     public Feature getFeature(String featureKey) {
-        lock.readLock().lock();
-        try {
-            if (currentLicense != null) {
-                return currentLicense.getFeature(featureKey);
-            }
-            return null;
-        } finally {
-            lock.readLock().unlock();
+        License license = currentLicense;
+        return license != null ? license.getFeature(featureKey) : null;
+    }
+
+    /**
+     * Gets the numeric limit of a feature in the current license.
+     *
+     * @param featureKey The feature key
+     * @return The limit, {@link Feature#UNLIMITED} if the feature has no cap, or 0 if it is not enabled
+     */
+    public long getLimit(String featureKey) {
+        return quotas.getLimit(featureKey);
+    }
+
+    /**
+     * Gets how much of a feature's limit has been consumed in this client.
+     *
+     * @param featureKey The feature key
+     * @return The consumed amount
+     */
+    public long getUsage(String featureKey) {
+        return quotas.getUsage(featureKey);
+    }
+
+    /**
+     * Atomically consumes part of a feature's limit.
+     * Usage is tracked in memory by this client and carried over when the license is revalidated.
+     *
+     * @param featureKey The feature key
+     * @param amount     The amount to consume
+     * @return true if the amount fit within the limit and was consumed
+     */
+    public boolean tryConsume(String featureKey, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative");
         }
+        return quotas.tryConsume(featureKey, amount);
+    }
+
+    /**
+     * Returns previously consumed amount to a feature's limit.
+     *
+     * @param featureKey The feature key
+     * @param amount     The amount to release
+     */
+    public void release(String featureKey, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative");
+        }
+        quotas.release(featureKey, amount);
+    }
+
+    /**
+     * Gets the entitlements of this client. Rules defined here are evaluated whenever the license changes,
+     * so checking them is a lock-free read.
+     * <pre>{@code
+     * Entitlement export = client.getEntitlements()
+     *     .define("bulk-export", "feature('export') && meta('tierRank') >= 2 && !expired");
+     * if (export.isGranted()) { ... }
+     * }</pre>
+     *
+     * @return The entitlements
+     */
+    public Entitlements getEntitlements() {
+        return entitlements;
     }
 
     /**
@@ -233,12 +735,7 @@ public class LicenseClient {
      * @return The current license, or null if not licensed
      */
     public License getLicense() {
-        lock.readLock().lock();
-        try {
-            return currentLicense;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return currentLicense;
     }
 
     /**
@@ -247,15 +744,8 @@ public class LicenseClient {
      * @return The license status
      */
     public LicenseStatus getStatus() {
-        lock.readLock().lock();
-        try {
-            if (currentLicense != null) {
-                return currentLicense.getStatus();
-            }
-            return LicenseStatus.NOT_ACTIVATED;
-        } finally {
-            lock.readLock().unlock();
-        }
+        License license = currentLicense;
+        return license != null ? license.getStatus() : LicenseStatus.NOT_ACTIVATED;
     }
 
     /**
@@ -264,14 +754,10 @@ public class LicenseClient {
      * @return true if licensed (valid or trial)
      */
     public boolean isLicensed() {
-        lock.readLock().lock();
-        try {
-            if (currentLicense == null) return false;
-            LicenseStatus status = currentLicense.getStatus();
-            return status == LicenseStatus.VALID || status == LicenseStatus.TRIAL;
-        } finally {
-            lock.readLock().unlock();
-        }
+        License license = currentLicense;
+        if (license == null) return false;
+        LicenseStatus status = license.getStatus();
+        return status == LicenseStatus.VALID || status == LicenseStatus.TRIAL;
     }
 
     /**
@@ -280,23 +766,75 @@ public class LicenseClient {
      * @return true if in trial mode
      */
     public boolean isTrial() {
-        lock.readLock().lock();
-        try {
-            if (currentLicense == null) return false;
-            return currentLicense.getStatus() == LicenseStatus.TRIAL ||
-                   currentLicense.getType() == LicenseType.TRIAL;
-        } finally {
-            lock.readLock().unlock();
-        }
+        License license = currentLicense;
+        if (license == null) return false;
+        return license.getStatus() == LicenseStatus.TRIAL || license.getType() == LicenseType.TRIAL;
     }
 
     /**
      * Gets available product tiers for purchase.
+     * The catalog is cached according to {@link LicenseOptions#getTierCacheTtl()}; if it cannot be fetched,
+     * the last successfully loaded catalog is returned.
      *
      * @return List of product tiers
      */
     public List<ProductTier> getTiers() {
-        return transport.getTiers();
+        ensureOpen();
+        return tierCatalog.getTiers();
+    }
+
+    /**
+     * Gets a product tier by its ID from the cached catalog.
+     *
+     * @param tierId The tier ID
+     * @return The tier, or null if not found
+     */
+    public ProductTier getTierById(String tierId) {
+        ensureOpen();
+        return tierCatalog.getById(tierId);
+    }
+
+    /**
+     * Gets a product tier by its slug from the cached catalog.
+     *
+     * @param slug The tier slug
+     * @return The tier, or null if not found
+     */
+    public ProductTier getTierBySlug(String slug) {
+        ensureOpen();
+        return tierCatalog.getBySlug(slug);
+    }
+
+    /**
+     * Gets the lowest-priced tier that unlocks a feature.
+     *
+     * @param featureKey The feature key
+     * @return The tier, or null if no tier enables the feature
+     */
+    public ProductTier getCheapestTierFor(String featureKey) {
+        ensureOpen();
+        return tierCatalog.getMatrix().cheapestTierFor(featureKey);
+    }
+
+    /**
+     * Gets every tier that unlocks a feature, in catalog order.
+     *
+     * @param featureKey The feature key
+     * @return List of tiers
+     */
+    public List<ProductTier> getTiersWithFeature(String featureKey) {
+        ensureOpen();
+        return tierCatalog.getMatrix().tiersWith(featureKey);
+    }
+
+    /**
+     * Refreshes the product tier catalog now, bypassing the cache.
+     *
+     * @return List of product tiers
+     */
+    public List<ProductTier> refreshTiers() {
+        ensureOpen();
+        return tierCatalog.refresh().tiers;
     }
 
     /**
@@ -305,7 +843,7 @@ public class LicenseClient {
      * @return A CompletableFuture with the list of tiers
      */
     public CompletableFuture<List<ProductTier>> getTiersAsync() {
-        return CompletableFuture.supplyAsync(this::getTiers);
+        return CompletableFuture.supplyAsync(this::getTiers, asyncExecutor);
     }
 
     /**
@@ -316,7 +854,12 @@ public class LicenseClient {
      * @return The checkout result with URL
      */
     public CheckoutResult startPurchase(String tierId, String email) {
-        return transport.startCheckout(tierId, email);
+        return startPurchase(tierId, email, transport.interactive());
+    }
+
+    private CheckoutResult startPurchase(String tierId, String email, RequestContext context) {
+        ensureOpen();
+        return transport.startCheckout(tierId, email, context);
     }
 
     /**
@@ -327,7 +870,7 @@ public class LicenseClient {
      * @return A CompletableFuture with the checkout result
      */
     public CompletableFuture<CheckoutResult> startPurchaseAsync(String tierId, String email) {
-        return CompletableFuture.supplyAsync(() -> startPurchase(tierId, email));
+        return supplyCancellable(transport.interactive(), context -> startPurchase(tierId, email, context));
     }
 
     /**
@@ -339,23 +882,140 @@ public class LicenseClient {
         return transport.getMachineId();
     }
 
+    /**
+     * Closes the client, waiting up to five seconds for in-flight calls to finish.
+     * The current license stays readable; network operations throw {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        close(DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    /**
+     * Closes the client. In-flight calls get until the deadline to finish and are then cancelled,
+     * after which pooled connections are evicted and the HTTP dispatcher threads are stopped.
+     *
+     * @param timeout How long to wait for in-flight calls
+     */
+    public void close(Duration timeout) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        publisher.close();
+        tierCatalog.close();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        transport.close(timeout);
+        if (store != null) {
+            try {
+                store.flush();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to flush license store: {0}", e.getMessage());
+            }
+        }
+        if (sharedCache != null) {
+            sharedCache.close();
+        }
+        if (leadership != null) {
+            leadership.close();
+        }
+        if (ownedExecutor != null) {
+            try {
+                if (!ownedExecutor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    ownedExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                ownedExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.debug("Client closed");
+    }
+
+    /**
+     * Checks if the client has been closed.
+     *
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
     private void updateLicense(String key, License license) {
+        boolean changed;
         lock.writeLock().lock();
         try {
+            changed = !Objects.equals(key, this.licenseKey) || !license.isEquivalentTo(currentLicense);
             this.licenseKey = key;
             this.currentLicense = license;
+            this.quotas = FeatureQuotas.of(license, quotas);
+            // Evaluated and published under the lock so subscribers see licenses in the order they were stored.
+            entitlements.update(license);
+            if (changed) {
+                publisher.submit(license);
+            }
         } finally {
             lock.writeLock().unlock();
         }
-        notifyLicenseChanged(license);
+        if (changed) {
+            notifyListener(license);
+        }
+    }
+
+    // Snapshots are rewritten at most once a minute per key unless the status changes, so frequent validation
+    // does not turn into a disk or network write per call.
+    private void saveSnapshot(String key, License license) {
+        if (store == null) {
+            return;
+        }
+        LicenseSnapshot previous = lastSnapshot;
+        long now = System.currentTimeMillis();
+        if (previous != null && previous.getLicenseKey().equals(key)
+                && previous.getLicense().getStatus() == license.getStatus()
+                && now - previous.getValidatedAt().toEpochMilli() < SNAPSHOT_INTERVAL_MILLIS) {
+            return;
+        }
+        LicenseSnapshot snapshot = new LicenseSnapshot(key, license, Instant.ofEpochMilli(now));
+        lastSnapshot = snapshot;
+        try {
+            store.save(snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to save license snapshot: {0}", e.getMessage());
+        }
+    }
+
+    private LicenseSnapshot loadSnapshot(String key) {
+        if (store == null) {
+            return null;
+        }
+        try {
+            return store.load(key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load license snapshot: {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void deleteSnapshot(String key) {
+        if (store == null) {
+            return;
+        }
+        lastSnapshot = null;
+        try {
+            store.delete(key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete license snapshot: {0}", e.getMessage());
+        }
     }
 
-    private void notifyLicenseChanged(License license) {
+    private void notifyListener(License license) {
         if (onLicenseChanged != null) {
             try {
                 onLicenseChanged.accept(license);
             } catch (Exception e) {
-                log("License change listener error: " + e.getMessage());
+                log.warn("License change listener error: {0}", e.getMessage());
             }
         }
     }
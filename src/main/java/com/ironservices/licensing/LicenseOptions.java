@@ -1,6 +1,7 @@
 package com.ironservices.licensing;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
 
 /**
  * Configuration options for the LicenseClient.
@@ -10,15 +11,39 @@ public class LicenseOptions {
     private static final Duration DEFAULT_HTTP_TIMEOUT = Duration.ofSeconds(30);
     private static final int DEFAULT_CACHE_VALIDATION_MINUTES = 60;
     private static final int DEFAULT_OFFLINE_GRACE_DAYS = 7;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    private static final Duration DEFAULT_TIER_CACHE_TTL = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_TIER_STALE_WHILE_REVALIDATE = Duration.ofHours(1);
 
     private String publicKey;
     private String productSlug;
     private String apiBaseUrl = DEFAULT_API_BASE_URL;
     private boolean debug = false;
-    private boolean enableOfflineCache = true;
+    private System.Logger logger;
+    private boolean enableOfflineCache = false;
     private int cacheValidationMinutes = DEFAULT_CACHE_VALIDATION_MINUTES;
     private int offlineGraceDays = DEFAULT_OFFLINE_GRACE_DAYS;
     private Duration httpTimeout = DEFAULT_HTTP_TIMEOUT;
+    private boolean useVirtualThreads = false;
+    private Executor asyncExecutor;
+    private Duration tierCacheTtl = DEFAULT_TIER_CACHE_TTL;
+    private Duration tierStaleWhileRevalidate = DEFAULT_TIER_STALE_WHILE_REVALIDATE;
+    private boolean lightweightExceptions = false;
+    private boolean compressRequests = false;
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    private WireFormat wireFormat = WireFormat.JSON;
+    private boolean sharedCache;
+    private Duration sharedRefreshWait = Duration.ofSeconds(5);
+    private Duration reclaimIdleAfter;
+    private int reclaimBatchSize = 50;
+    private double reclaimBatchesPerSecond = 2.0;
+    private MachineIdProvider machineIdProvider = MachineIdProvider.defaultProvider();
+    private LicenseStore licenseStore;
+    private double rateLimitPerSecond;
+    private int rateLimitBurst = 10;
+    private RateLimitMode rateLimitMode = RateLimitMode.FAIL_FAST;
+    private Duration interactiveTimeout;
+    private Duration backgroundTimeout;
 
     public LicenseOptions() {}
 
@@ -62,15 +87,37 @@ public class LicenseOptions {
         return debug;
     }
 
+    /**
+     * Turns on debug logging. Without a {@linkplain #setLogger(System.Logger) logger}, messages go to
+     * {@code System.getLogger("com.ironservices.licensing")} at INFO so they show under the default configuration.
+     */
     public LicenseOptions setDebug(boolean debug) {
         this.debug = debug;
         return this;
     }
 
+    public System.Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Sets the logger for SDK diagnostics, which are logged at DEBUG and recovered failures at WARNING.
+     * Bridges for SLF4J and Log4j plug in through {@link System.LoggerFinder}.
+     */
+    public LicenseOptions setLogger(System.Logger logger) {
+        this.logger = logger;
+        return this;
+    }
+
     public boolean isEnableOfflineCache() {
         return enableOfflineCache;
     }
 
+    /**
+     * Persists validated licenses to a {@link FileLicenseStore} under {@code ~/.ironlicensing/store}, for
+     * offline grace and warm starts. Off by default, so nothing is written to disk unless asked for.
+     * Ignored when a {@link #setLicenseStore(LicenseStore) license store} is set.
+     */
     public LicenseOptions setEnableOfflineCache(boolean enableOfflineCache) {
         this.enableOfflineCache = enableOfflineCache;
         return this;
@@ -103,6 +150,268 @@ public class LicenseOptions {
         return this;
     }
 
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Runs the *Async methods on a virtual-thread-per-task executor when the JVM supports it (Java 21+).
+     * Ignored on older JVMs, and when an explicit async executor is set.
+     */
+    public LicenseOptions setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Sets the executor for the *Async methods. Defaults to the common fork-join pool.
+     * The client does not shut down an executor supplied here.
+     */
+    public LicenseOptions setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    public Duration getTierCacheTtl() {
+        return tierCacheTtl;
+    }
+
+    /**
+     * Sets how long the product tier catalog is served from memory without refreshing.
+     */
+    public LicenseOptions setTierCacheTtl(Duration tierCacheTtl) {
+        this.tierCacheTtl = tierCacheTtl;
+        return this;
+    }
+
+    public Duration getTierStaleWhileRevalidate() {
+        return tierStaleWhileRevalidate;
+    }
+
+    /**
+     * Sets how long after the TTL a stale tier catalog is still served while it refreshes in the background.
+     */
+    public LicenseOptions setTierStaleWhileRevalidate(Duration tierStaleWhileRevalidate) {
+        this.tierStaleWhileRevalidate = tierStaleWhileRevalidate;
+        return this;
+    }
+
+    public boolean isLightweightExceptions() {
+        return lightweightExceptions;
+    }
+
+    /**
+     * Makes requireFeature and {@link FeatureCheck#orThrow()} throw exceptions without stack traces, for code
+     * that uses them as control flow. Off by default, so denials carry a full stack trace.
+     */
+    public LicenseOptions setLightweightExceptions(boolean lightweightExceptions) {
+        this.lightweightExceptions = lightweightExceptions;
+        return this;
+    }
+
+    public boolean isCompressRequests() {
+        return compressRequests;
+    }
+
+    /**
+     * Gzips request bodies at or above {@link #getCompressionThreshold()} bytes.
+     * Only enable this if your API endpoint accepts Content-Encoding: gzip.
+     */
+    public LicenseOptions setCompressRequests(boolean compressRequests) {
+        this.compressRequests = compressRequests;
+        return this;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Sets the smallest request body, in bytes, that is compressed. Defaults to 1024.
+     */
+    public LicenseOptions setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Sets the response encoding to request. Defaults to JSON; CBOR falls back to JSON
+     * when the server does not offer it. CBOR saves bandwidth, not CPU: it decodes more slowly than JSON.
+     */
+    public LicenseOptions setWireFormat(WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+        return this;
+    }
+
+    public boolean isSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * Shares validated licenses with the other processes of this product on the same host through a
+     * memory-mapped file in {@code ~/.ironlicensing}. A license validated by any process within
+     * {@link #getCacheValidationMinutes()} is reused without a network call.
+     */
+    public LicenseOptions setSharedCache(boolean sharedCache) {
+        this.sharedCache = sharedCache;
+        return this;
+    }
+
+    public Duration getSharedRefreshWait() {
+        return sharedRefreshWait;
+    }
+
+    /**
+     * Sets how long a process waits for another process on the host to finish validating or activating
+     * before calling the API itself. Only used with the shared cache. Defaults to 5 seconds.
+     */
+    public LicenseOptions setSharedRefreshWait(Duration sharedRefreshWait) {
+        this.sharedRefreshWait = sharedRefreshWait;
+        return this;
+    }
+
+    public Duration getReclaimIdleAfter() {
+        return reclaimIdleAfter;
+    }
+
+    /**
+     * When set, an activation refused because the license is at its activation cap first deactivates
+     * machines not seen for this long, then retries once. Off by default. Reclaiming shares the activation's
+     * deadline, so a large backlog of stale machines is only partly cleared rather than stalling the call.
+     */
+    public LicenseOptions setReclaimIdleAfter(Duration reclaimIdleAfter) {
+        this.reclaimIdleAfter = reclaimIdleAfter;
+        return this;
+    }
+
+    public int getReclaimBatchSize() {
+        return reclaimBatchSize;
+    }
+
+    /**
+     * Sets how many stale machines are deactivated per request when reclaiming. Defaults to 50.
+     */
+    public LicenseOptions setReclaimBatchSize(int reclaimBatchSize) {
+        this.reclaimBatchSize = reclaimBatchSize;
+        return this;
+    }
+
+    public double getReclaimBatchesPerSecond() {
+        return reclaimBatchesPerSecond;
+    }
+
+    /**
+     * Caps how many reclamation batches are sent per second. Defaults to 2; zero or less disables the cap.
+     */
+    public LicenseOptions setReclaimBatchesPerSecond(double reclaimBatchesPerSecond) {
+        this.reclaimBatchesPerSecond = reclaimBatchesPerSecond;
+        return this;
+    }
+
+    public MachineIdProvider getMachineIdProvider() {
+        return machineIdProvider;
+    }
+
+    /**
+     * Sets where the machine ID comes from. Defaults to {@link MachineIdProvider#defaultProvider()}.
+     */
+    public LicenseOptions setMachineIdProvider(MachineIdProvider machineIdProvider) {
+        this.machineIdProvider = machineIdProvider;
+        return this;
+    }
+
+    public LicenseStore getLicenseStore() {
+        return licenseStore;
+    }
+
+    /**
+     * Sets where validated licenses are persisted for offline grace and warm starts. When unset, licenses are
+     * only persisted if {@link #isEnableOfflineCache()} is on, to a {@link FileLicenseStore} under
+     * {@code ~/.ironlicensing/store}.
+     */
+    public LicenseOptions setLicenseStore(LicenseStore licenseStore) {
+        this.licenseStore = licenseStore;
+        return this;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    /**
+     * Caps requests to each API endpoint at this sustained rate. Zero, the default, means no client-side cap;
+     * server 429 and Retry-After responses are honoured either way.
+     */
+    public LicenseOptions setRateLimitPerSecond(double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+        return this;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * Sets how many requests per endpoint may be made back to back before the rate cap applies. Defaults to 10.
+     */
+    public LicenseOptions setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+        return this;
+    }
+
+    public RateLimitMode getRateLimitMode() {
+        return rateLimitMode;
+    }
+
+    /**
+     * Sets whether requests over the limit fail at once or wait for a permit. Defaults to fail fast.
+     */
+    public LicenseOptions setRateLimitMode(RateLimitMode rateLimitMode) {
+        this.rateLimitMode = rateLimitMode;
+        return this;
+    }
+
+    /**
+     * Gets the overall deadline for calls a caller is waiting on, such as validate and activate.
+     * Defaults to {@link #getHttpTimeout()}.
+     */
+    public Duration getInteractiveTimeout() {
+        return interactiveTimeout != null ? interactiveTimeout : httpTimeout;
+    }
+
+    /**
+     * Sets the overall deadline, covering connect, write and read, for calls a caller is waiting on.
+     * Individual calls can override it, e.g. {@code validate(key, Duration.ofMillis(50))}.
+     */
+    public LicenseOptions setInteractiveTimeout(Duration interactiveTimeout) {
+        this.interactiveTimeout = interactiveTimeout;
+        return this;
+    }
+
+    /**
+     * Gets the overall deadline for background work such as tier refreshes and activation reclamation.
+     * Defaults to {@link #getHttpTimeout()}.
+     */
+    public Duration getBackgroundTimeout() {
+        return backgroundTimeout != null ? backgroundTimeout : httpTimeout;
+    }
+
+    /**
+     * Sets the overall deadline for background work nobody is waiting on.
+     */
+    public LicenseOptions setBackgroundTimeout(Duration backgroundTimeout) {
+        this.backgroundTimeout = backgroundTimeout;
+        return this;
+    }
+
     public static class Builder {
         private final LicenseOptions options;
 
@@ -120,6 +429,11 @@ public class LicenseOptions {
             return this;
         }
 
+        public Builder logger(System.Logger logger) {
+            options.setLogger(logger);
+            return this;
+        }
+
         public Builder enableOfflineCache(boolean enable) {
             options.setEnableOfflineCache(enable);
             return this;
@@ -140,6 +454,102 @@ public class LicenseOptions {
             return this;
         }
 
+        public Builder useVirtualThreads(boolean enable) {
+            options.setUseVirtualThreads(enable);
+            return this;
+        }
+
+        public Builder asyncExecutor(Executor executor) {
+            options.setAsyncExecutor(executor);
+            return this;
+        }
+
+        public Builder tierCacheTtl(Duration ttl) {
+            options.setTierCacheTtl(ttl);
+            return this;
+        }
+
+        public Builder tierStaleWhileRevalidate(Duration window) {
+            options.setTierStaleWhileRevalidate(window);
+            return this;
+        }
+
+        public Builder lightweightExceptions(boolean enable) {
+            options.setLightweightExceptions(enable);
+            return this;
+        }
+
+        public Builder compressRequests(boolean enable) {
+            options.setCompressRequests(enable);
+            return this;
+        }
+
+        public Builder compressionThreshold(int bytes) {
+            options.setCompressionThreshold(bytes);
+            return this;
+        }
+
+        public Builder wireFormat(WireFormat wireFormat) {
+            options.setWireFormat(wireFormat);
+            return this;
+        }
+
+        public Builder sharedCache(boolean enable) {
+            options.setSharedCache(enable);
+            return this;
+        }
+
+        public Builder sharedRefreshWait(Duration wait) {
+            options.setSharedRefreshWait(wait);
+            return this;
+        }
+
+        public Builder reclaimIdleAfter(Duration idle) {
+            options.setReclaimIdleAfter(idle);
+            return this;
+        }
+
+        public Builder reclaimBatchSize(int size) {
+            options.setReclaimBatchSize(size);
+            return this;
+        }
+
+        public Builder reclaimBatchesPerSecond(double perSecond) {
+            options.setReclaimBatchesPerSecond(perSecond);
+            return this;
+        }
+
+        public Builder machineIdProvider(MachineIdProvider provider) {
+            options.setMachineIdProvider(provider);
+            return this;
+        }
+
+        public Builder licenseStore(LicenseStore store) {
+            options.setLicenseStore(store);
+            return this;
+        }
+
+        public Builder rateLimit(double perSecond, int burst) {
+            options.setRateLimitPerSecond(perSecond);
+            options.setRateLimitBurst(burst);
+            return this;
+        }
+
+        public Builder rateLimitMode(RateLimitMode mode) {
+            options.setRateLimitMode(mode);
+            return this;
+        }
+
+        public Builder interactiveTimeout(Duration timeout) {
+            options.setInteractiveTimeout(timeout);
+            return this;
+        }
+
+        public Builder backgroundTimeout(Duration timeout) {
+            options.setBackgroundTimeout(timeout);
+            return this;
+        }
+
         public LicenseOptions build() {
             if (options.getPublicKey() == null || options.getPublicKey().isEmpty()) {
                 throw new IllegalArgumentException("Public key is required");
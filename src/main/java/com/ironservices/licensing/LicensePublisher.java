@@ -0,0 +1,179 @@
+package com.ironservices.licensing;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes license changes to {@link Flow.Subscriber}s.
+ * Each subscriber receives the latest license on subscribe and is then told about newer ones.
+ * Updates are conflated: a slow subscriber only ever sees the most recent license once demand allows,
+ * so no buffers build up.
+ */
+final class LicensePublisher implements Flow.Publisher<License> {
+    private final Executor executor;
+    private final Set<LicenseSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Signal latest;
+    private volatile boolean closed;
+
+    LicensePublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super License> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        LicenseSubscription subscription = new LicenseSubscription(subscriber);
+        subscriptions.add(subscription);
+        Signal current = latest;
+        if (current != null) {
+            subscription.offer(current);
+        }
+        if (closed) {
+            subscription.complete();
+        }
+        subscription.drain();
+    }
+
+    void submit(License license) {
+        Signal signal = new Signal(license, versions.incrementAndGet());
+        latest = signal;
+        for (LicenseSubscription subscription : subscriptions) {
+            subscription.offer(signal);
+            subscription.drain();
+        }
+    }
+
+    void close() {
+        closed = true;
+        for (LicenseSubscription subscription : subscriptions) {
+            subscription.complete();
+            subscription.drain();
+        }
+    }
+
+    private static final class Signal {
+        final License license;
+        final long version;
+
+        Signal(License license, long version) {
+            this.license = license;
+            this.version = version;
+        }
+    }
+
+    private final class LicenseSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super License> subscriber;
+        private final AtomicReference<Signal> pending = new AtomicReference<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile long deliveredVersion;
+        private volatile boolean completed;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private boolean started;
+
+        LicenseSubscription(Flow.Subscriber<? super License> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(Signal signal) {
+            while (signal.version > deliveredVersion) {
+                Signal current = pending.get();
+                if (current != null && current.version >= signal.version) {
+                    return;
+                }
+                if (pending.compareAndSet(current, signal)) {
+                    return;
+                }
+            }
+        }
+
+        void complete() {
+            completed = true;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Demand must be positive, was " + n);
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                    if (current == Long.MAX_VALUE) {
+                        break;
+                    }
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                try {
+                    emit();
+                } catch (Throwable t) {
+                    cancel();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (!started) {
+                started = true;
+                subscriber.onSubscribe(this);
+            }
+            while (!cancelled) {
+                Throwable failure = error;
+                if (failure != null) {
+                    cancel();
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (demand.get() == 0) {
+                    break;
+                }
+                Signal signal = pending.getAndSet(null);
+                if (signal == null) {
+                    break;
+                }
+                deliveredVersion = signal.version;
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                subscriber.onNext(signal.license);
+            }
+            if (!cancelled && completed && (pending.get() == null || demand.get() == 0)) {
+                cancel();
+                subscriber.onComplete();
+            }
+        }
+    }
+}
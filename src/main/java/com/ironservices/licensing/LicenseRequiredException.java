@@ -2,16 +2,55 @@ package com.ironservices.licensing;
 
 /**
  * Exception thrown when a required feature is not available in the current license.
+ * The message is built on first access rather than at construction.
  */
 public class LicenseRequiredException extends RuntimeException {
     private final String feature;
+    private final ProductTier suggestedTier;
 
     public LicenseRequiredException(String feature) {
-        super("Feature '" + feature + "' requires a valid license");
+        this(feature, null);
+    }
+
+    /**
+     * Creates the exception with the tier the user could upgrade to.
+     *
+     * @param feature       The missing feature
+     * @param suggestedTier The cheapest tier that unlocks it, or null if unknown
+     */
+    public LicenseRequiredException(String feature, ProductTier suggestedTier) {
+        this(feature, suggestedTier, true);
+    }
+
+    /**
+     * Creates the exception, optionally without capturing a stack trace.
+     * Skipping the stack trace, and suppression with it, makes the exception cheap enough to throw on hot paths.
+     *
+     * @param feature            The missing feature
+     * @param suggestedTier      The cheapest tier that unlocks it, or null if unknown
+     * @param writableStackTrace false to skip filling in the stack trace and recording suppressed exceptions
+     */
+    public LicenseRequiredException(String feature, ProductTier suggestedTier, boolean writableStackTrace) {
+        super(null, null, writableStackTrace, writableStackTrace);
         this.feature = feature;
+        this.suggestedTier = suggestedTier;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Feature '" + feature + "' requires a valid license";
     }
 
     public String getFeature() {
         return feature;
     }
+
+    /**
+     * Gets the cheapest tier that unlocks the feature, if the tier catalog was already loaded.
+     *
+     * @return The suggested tier, or null
+     */
+    public ProductTier getSuggestedTier() {
+        return suggestedTier;
+    }
 }
@@ -22,6 +22,9 @@ public class LicenseResult {
     @SerializedName("cached")
     private boolean cached;
 
+    private transient ErrorCode errorCode;
+    private transient int httpStatus;
+
     public LicenseResult() {}
 
     public LicenseResult(boolean valid, String error) {
@@ -40,6 +43,13 @@ public class LicenseResult {
         return new LicenseResult(false, error);
     }
 
+    public static LicenseResult failure(ErrorCode errorCode, String error, int httpStatus) {
+        LicenseResult result = new LicenseResult(false, error);
+        result.errorCode = errorCode;
+        result.httpStatus = httpStatus;
+        return result;
+    }
+
     public boolean isValid() {
         return valid;
     }
@@ -80,8 +90,39 @@ public class LicenseResult {
         this.cached = cached;
     }
 
+    /**
+     * Gets why the request failed.
+     *
+     * @return The error code, or null if the result is valid
+     */
+    public ErrorCode getErrorCode() {
+        if (errorCode == null && !valid) {
+            // Results built from an error string or a body with valid=false are classified on first use.
+            errorCode = ErrorCode.of(error, httpStatus);
+        }
+        return errorCode;
+    }
+
+    public void setErrorCode(ErrorCode errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Gets the HTTP status of the response the result came from.
+     *
+     * @return The status, or 0 if no response was received
+     */
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public void setHttpStatus(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
     @Override
     public String toString() {
-        return "LicenseResult{valid=" + valid + ", error='" + error + "'}";
+        return "LicenseResult{valid=" + valid + ", error='" + error + "'"
+            + (valid ? "" : ", errorCode=" + getErrorCode()) + "}";
     }
 }
@@ -0,0 +1,49 @@
+package com.ironservices.licensing;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A license as last validated, with the time of that validation.
+ */
+public final class LicenseSnapshot {
+    private final String licenseKey;
+    private final License license;
+    private final Instant validatedAt;
+
+    public LicenseSnapshot(String licenseKey, License license, Instant validatedAt) {
+        if (licenseKey == null || license == null || validatedAt == null) {
+            throw new IllegalArgumentException("License key, license and validation time are required");
+        }
+        this.licenseKey = licenseKey;
+        this.license = license;
+        this.validatedAt = validatedAt;
+    }
+
+    public String getLicenseKey() {
+        return licenseKey;
+    }
+
+    public License getLicense() {
+        return license;
+    }
+
+    public Instant getValidatedAt() {
+        return validatedAt;
+    }
+
+    /**
+     * Checks whether the snapshot was validated within the given age.
+     *
+     * @param maxAge The maximum age
+     * @return true if the snapshot is no older than maxAge
+     */
+    public boolean isFresherThan(Duration maxAge) {
+        return !validatedAt.plus(maxAge).isBefore(Instant.now());
+    }
+
+    @Override
+    public String toString() {
+        return "LicenseSnapshot{license=" + license + ", validatedAt=" + validatedAt + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+
+/**
+ * Persists validated license state outside the client, for offline grace, warm starts and sharing
+ * state between nodes. {@link FileLicenseStore} keeps it on local disk and {@link InMemoryLicenseStore}
+ * in the heap; a shared store (a database or cache server) lets several nodes reuse one validation.
+ * <p>
+ * Implementations must be thread-safe. The client treats every failure as a cache miss, so a store that
+ * is down never fails a validation.
+ */
+public interface LicenseStore {
+    /**
+     * Loads the last snapshot saved for a license key.
+     *
+     * @param licenseKey The license key
+     * @return The snapshot, or null if there is none or it is unreadable
+     * @throws IOException if the store could not be reached
+     */
+    LicenseSnapshot load(String licenseKey) throws IOException;
+
+    /**
+     * Saves a snapshot, replacing any earlier one for the same key.
+     *
+     * @param snapshot The snapshot to save
+     * @throws IOException if the store could not be written
+     */
+    void save(LicenseSnapshot snapshot) throws IOException;
+
+    /**
+     * Removes the snapshot for a license key, e.g. after deactivation.
+     *
+     * @param licenseKey The license key
+     * @throws IOException if the store could not be written
+     */
+    void delete(String licenseKey) throws IOException;
+
+    /**
+     * Writes out anything buffered. Called when the client is closed.
+     *
+     * @throws IOException if the store could not be written
+     */
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,96 @@
+package com.ironservices.licensing;
+
+import java.util.function.Supplier;
+
+/**
+ * Debug logging over {@link System.Logger}, so applications can route it to SLF4J, Log4j or
+ * java.util.logging through the platform's logger finder.
+ * <p>
+ * Messages are {@link java.text.MessageFormat} patterns with their arguments passed separately, or suppliers,
+ * and the level is checked before anything is formatted: with logging off a call costs one branch and allocates
+ * nothing. Fixed-arity overloads keep the argument array from being built at the call site, and the
+ * {@code long} overloads keep counts from being boxed unless the message is logged. Format numbers with
+ * {@code {0,number,#}} so they are not grouped by locale.
+ */
+final class Log {
+    static final String LOGGER_NAME = "com.ironservices.licensing";
+
+    private static final Log DISABLED = new Log(null, System.Logger.Level.DEBUG);
+
+    private final System.Logger logger;
+    private final System.Logger.Level level;
+
+    private Log(System.Logger logger, System.Logger.Level level) {
+        this.logger = logger;
+        this.level = level;
+    }
+
+    /**
+     * Gets the log for a client: the configured logger at DEBUG, or with only {@link LicenseOptions#isDebug()}
+     * set, the platform logger at INFO so the output shows under a default configuration.
+     */
+    static Log of(LicenseOptions options) {
+        if (options.getLogger() != null) {
+            return new Log(options.getLogger(), System.Logger.Level.DEBUG);
+        }
+        if (options.isDebug()) {
+            return new Log(System.getLogger(LOGGER_NAME), System.Logger.Level.INFO);
+        }
+        return DISABLED;
+    }
+
+    boolean isEnabled() {
+        return logger != null && logger.isLoggable(level);
+    }
+
+    void debug(String message) {
+        if (isEnabled()) {
+            logger.log(level, message);
+        }
+    }
+
+    void debug(String format, Object arg) {
+        if (isEnabled()) {
+            logger.log(level, format, arg);
+        }
+    }
+
+    void debug(String format, long arg) {
+        if (isEnabled()) {
+            logger.log(level, format, arg);
+        }
+    }
+
+    void debug(String format, long arg1, Object arg2) {
+        if (isEnabled()) {
+            logger.log(level, format, arg1, arg2);
+        }
+    }
+
+    void debug(String format, Object arg1, Object arg2) {
+        if (isEnabled()) {
+            logger.log(level, format, arg1, arg2);
+        }
+    }
+
+    void debug(Supplier<String> message) {
+        if (isEnabled()) {
+            logger.log(level, message);
+        }
+    }
+
+    /**
+     * Logs a failure the client recovered from, at WARNING.
+     */
+    void warn(String message) {
+        if (logger != null && logger.isLoggable(System.Logger.Level.WARNING)) {
+            logger.log(System.Logger.Level.WARNING, message);
+        }
+    }
+
+    void warn(String format, Object arg) {
+        if (logger != null && logger.isLoggable(System.Logger.Level.WARNING)) {
+            logger.log(System.Logger.Level.WARNING, format, arg);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * Supplies the ID a machine is activated under.
+ * Providers return null when they cannot identify the machine, so they can be chained with
+ * {@link #firstOf(MachineIdProvider...)}.
+ *
+ * <pre>{@code
+ * // Containers: prefer an injected ID, then a fingerprint that survives restarts of the same pod
+ * options.setMachineIdProvider(MachineIdProvider.firstOf(
+ *     MachineIdProvider.environment("POD_UID"),
+ *     MachineIdProvider.systemFingerprint()));
+ * }</pre>
+ */
+@FunctionalInterface
+public interface MachineIdProvider {
+    /**
+     * The environment variable read by the default provider.
+     */
+    String ENVIRONMENT_VARIABLE = "IRONLICENSING_MACHINE_ID";
+
+    /**
+     * Gets the machine ID.
+     *
+     * @return The ID, or null if this provider cannot identify the machine
+     * @throws IOException if reading the source failed
+     */
+    String getMachineId() throws IOException;
+
+    /**
+     * Gets the default provider: {@value #ENVIRONMENT_VARIABLE} if set, otherwise a random ID persisted
+     * to {@code ~/.ironlicensing/machine_id}. The result is computed once per JVM.
+     */
+    static MachineIdProvider defaultProvider() {
+        return MachineIds.DEFAULT;
+    }
+
+    /**
+     * Reads the ID from an environment variable.
+     */
+    static MachineIdProvider environment(String variable) {
+        return () -> MachineIds.trimToNull(System.getenv(variable));
+    }
+
+    /**
+     * Reads the ID from a file, without creating it.
+     */
+    static MachineIdProvider file(Path path) {
+        return () -> Files.isReadable(path)
+            ? MachineIds.trimToNull(new String(Files.readAllBytes(path), StandardCharsets.UTF_8))
+            : null;
+    }
+
+    /**
+     * Reads the ID from a file, creating it with a random ID the first time.
+     * This is the SDK's historical behaviour; on an ephemeral home directory every start gets a new ID.
+     */
+    static MachineIdProvider persistentFile(Path path) {
+        return () -> {
+            String existing = file(path).getMachineId();
+            if (existing != null) {
+                return existing;
+            }
+            String id = UUID.randomUUID().toString();
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, id.getBytes(StandardCharsets.UTF_8));
+            return id;
+        };
+    }
+
+    /**
+     * Derives a stable ID from the operating system's machine ID ({@code /etc/machine-id} or the D-Bus copy)
+     * and the host name, without writing anything.
+     * In a container the host name is the pod or container name, so the ID is stable across restarts of
+     * the same pod while containers started from one image still get distinct IDs. Returns null when
+     * neither source is available.
+     */
+    static MachineIdProvider systemFingerprint() {
+        return () -> {
+            String osId = firstOf(
+                file(Paths.get("/etc/machine-id")),
+                file(Paths.get("/var/lib/dbus/machine-id"))).getMachineId();
+            String host = MachineIds.trimToNull(System.getenv("HOSTNAME"));
+            if (host == null) {
+                try {
+                    host = InetAddress.getLocalHost().getHostName();
+                } catch (IOException e) {
+                    host = null;
+                }
+            }
+            if (osId == null && host == null) {
+                return null;
+            }
+            String source = (osId != null ? osId : "") + '\n' + (host != null ? host : "");
+            return UUID.nameUUIDFromBytes(source.getBytes(StandardCharsets.UTF_8)).toString();
+        };
+    }
+
+    /**
+     * Tries providers in order and returns the first ID found. A provider that throws is skipped.
+     */
+    static MachineIdProvider firstOf(MachineIdProvider... providers) {
+        return () -> {
+            IOException failure = null;
+            for (MachineIdProvider provider : providers) {
+                try {
+                    String id = MachineIds.trimToNull(provider.getMachineId());
+                    if (id != null) {
+                        return id;
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Wraps a provider so its ID is computed once and then reused. Failures and nulls are not cached.
+     */
+    static MachineIdProvider cached(MachineIdProvider provider) {
+        return new MachineIds.Cached(provider);
+    }
+}
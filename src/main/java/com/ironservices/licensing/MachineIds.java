@@ -0,0 +1,55 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation details of {@link MachineIdProvider}.
+ */
+final class MachineIds {
+    static final MachineIdProvider DEFAULT = new Cached(MachineIdProvider.firstOf(
+        MachineIdProvider.environment(MachineIdProvider.ENVIRONMENT_VARIABLE),
+        MachineIdProvider.persistentFile(
+            Paths.get(System.getProperty("user.home"), ".ironlicensing", "machine_id"))));
+
+    private MachineIds() {}
+
+    static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Resolves the ID once. The delegate may do file IO, so callers wait on a ReentrantLock rather than
+    // a monitor, which would pin a virtual thread for the duration.
+    static final class Cached implements MachineIdProvider {
+        private final MachineIdProvider delegate;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile String id;
+
+        Cached(MachineIdProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getMachineId() throws IOException {
+            String current = id;
+            if (current == null) {
+                lock.lock();
+                try {
+                    current = id;
+                    if (current == null) {
+                        current = delegate.getMachineId();
+                        id = current;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return current;
+        }
+    }
+}
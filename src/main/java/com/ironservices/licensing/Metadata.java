@@ -0,0 +1,264 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of license or feature metadata.
+ * The JSON is kept as compact text and only parsed into a tree the first time a value is read, so
+ * metadata nobody looks at costs a single string rather than a tree of objects. Numbers in the tree stay
+ * unconverted until read, and the typed getters read primitives directly.
+ */
+@JsonAdapter(Metadata.Adapter.class)
+public final class Metadata {
+    private static final Gson GSON = new Gson();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+
+    private final String raw;
+    private volatile JsonObject json;
+    private volatile Map<String, Object> decoded;
+
+    private Metadata(String raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * Creates metadata from a map of values.
+     *
+     * @param values The values, or null
+     * @return The metadata, or null if values is null
+     */
+    public static Metadata of(Map<String, Object> values) {
+        if (values == null) {
+            return null;
+        }
+        return new Metadata(GSON.toJson(values, MAP_TYPE));
+    }
+
+    /**
+     * Checks whether a key may be present without parsing the text. False means it is certainly absent;
+     * true only means it may be present, since the text can mention the key as a value or spell it with escapes.
+     */
+    boolean mayHave(String key) {
+        JsonObject parsed = json;
+        if (parsed != null) {
+            return parsed.has(key);
+        }
+        return raw.indexOf('\\') >= 0 || raw.contains('"' + key + '"');
+    }
+
+    static boolean sameContent(Metadata a, Metadata b) {
+        return a == b || a != null && b != null && a.raw.equals(b.raw);
+    }
+
+    public boolean has(String key) {
+        return json().has(key);
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(json().keySet());
+    }
+
+    public int size() {
+        return json().size();
+    }
+
+    /**
+     * Gets a value as a string.
+     *
+     * @return The value, or null if absent or not a primitive
+     */
+    public String getString(String key) {
+        JsonPrimitive value = primitive(key);
+        return value != null ? value.getAsString() : null;
+    }
+
+    /**
+     * Gets a value as a long.
+     *
+     * @return The value, or defaultValue if absent or not numeric
+     */
+    public long getLong(String key, long defaultValue) {
+        JsonPrimitive value = primitive(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return value.getAsLong();
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets a value as a double.
+     *
+     * @return The value, or defaultValue if absent or not numeric
+     */
+    public double getDouble(String key, double defaultValue) {
+        JsonPrimitive value = primitive(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return value.getAsDouble();
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets a value as a boolean.
+     *
+     * @return The value, or defaultValue if absent or not a boolean
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        JsonPrimitive value = primitive(key);
+        return value != null && value.isBoolean() ? value.getAsBoolean() : defaultValue;
+    }
+
+    boolean hasBoolean(String key) {
+        JsonPrimitive value = primitive(key);
+        return value != null && value.isBoolean();
+    }
+
+    /**
+     * Decodes the metadata into a map, as Gson would have; numbers become Doubles.
+     * Decoded on first call and cached.
+     *
+     * @return Unmodifiable map of values
+     */
+    public Map<String, Object> asMap() {
+        Map<String, Object> map = decoded;
+        if (map == null) {
+            map = Collections.unmodifiableMap(GSON.fromJson(raw, MAP_TYPE));
+            decoded = map;
+        }
+        return map;
+    }
+
+    // Parsed at most a few times under a race, and every parse yields an equal tree.
+    private JsonObject json() {
+        JsonObject tree = json;
+        if (tree == null) {
+            tree = JsonParser.parseString(raw).getAsJsonObject();
+            json = tree;
+        }
+        return tree;
+    }
+
+    private JsonPrimitive primitive(String key) {
+        JsonElement value = json().get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsJsonPrimitive() : null;
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+    static final class Adapter extends TypeAdapter<Metadata> {
+        @Override
+        public void write(JsonWriter out, Metadata value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            // Streamed token by token rather than written raw, so tree writers such as toJsonTree work too.
+            // Nulls inside the metadata are part of its value, so they are kept whatever the writer's setting.
+            boolean serializeNulls = out.getSerializeNulls();
+            out.setSerializeNulls(true);
+            try {
+                copy(new JsonReader(new StringReader(value.raw)), out, false);
+            } finally {
+                out.setSerializeNulls(serializeNulls);
+            }
+        }
+
+        @Override
+        public Metadata read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonParseException("Expected metadata object but was " + in.peek());
+            }
+            StringWriter text = new StringWriter();
+            copy(in, new JsonWriter(text), true);
+            return new Metadata(text.toString());
+        }
+
+        // Copies one value without building a tree. Numbers keep their literal text when the target is a plain
+        // writer; otherwise they go through BigDecimal, which keeps their precision.
+        private static void copy(JsonReader in, JsonWriter out, boolean toText) throws IOException {
+            int depth = 0;
+            do {
+                switch (in.peek()) {
+                    case BEGIN_OBJECT:
+                        in.beginObject();
+                        out.beginObject();
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                        in.endObject();
+                        out.endObject();
+                        depth--;
+                        break;
+                    case BEGIN_ARRAY:
+                        in.beginArray();
+                        out.beginArray();
+                        depth++;
+                        break;
+                    case END_ARRAY:
+                        in.endArray();
+                        out.endArray();
+                        depth--;
+                        break;
+                    case NAME:
+                        out.name(in.nextName());
+                        break;
+                    case STRING:
+                        out.value(in.nextString());
+                        break;
+                    case NUMBER:
+                        String number = in.nextString();
+                        if (toText) {
+                            out.jsonValue(number);
+                        } else {
+                            out.value(new BigDecimal(number));
+                        }
+                        break;
+                    case BOOLEAN:
+                        out.value(in.nextBoolean());
+                        break;
+                    case NULL:
+                        in.nextNull();
+                        out.nullValue();
+                        break;
+                    default:
+                        throw new JsonParseException("Unexpected end of metadata");
+                }
+            } while (depth > 0);
+        }
+    }
+}
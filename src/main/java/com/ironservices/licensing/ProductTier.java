@@ -1,12 +1,15 @@
 package com.ironservices.licensing;
 
 import com.google.gson.annotations.SerializedName;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Represents a product tier available for purchase.
+ * Represents a product tier available for purchase. Instances are immutable, so the cached catalog can hand
+ * the same tier to every caller.
  */
-public class ProductTier {
+public final class ProductTier {
     @SerializedName("id")
     private String id;
 
@@ -31,74 +34,118 @@ public class ProductTier {
     @SerializedName("features")
     private List<Feature> features;
 
-    public ProductTier() {}
+    private ProductTier() {}
 
-    public String getId() {
-        return id;
+    public static Builder builder() {
+        return new Builder();
     }
 
-    public void setId(String id) {
-        this.id = id;
+    /**
+     * Swaps deserialized feature keys for their shared instances. Called once, before the tier is published.
+     */
+    ProductTier internFeatureKeys() {
+        if (features != null) {
+            for (Feature feature : features) {
+                if (feature != null) {
+                    feature.internKey();
+                }
+            }
+        }
+        return this;
     }
 
-    public String getSlug() {
-        return slug;
+    public String getId() {
+        return id;
     }
 
-    public void setSlug(String slug) {
-        this.slug = slug;
+    public String getSlug() {
+        return slug;
     }
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     public double getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
-        this.price = price;
-    }
-
     public String getCurrency() {
         return currency;
     }
 
-    public void setCurrency(String currency) {
-        this.currency = currency;
-    }
-
     public String getBillingPeriod() {
         return billingPeriod;
     }
 
-    public void setBillingPeriod(String billingPeriod) {
-        this.billingPeriod = billingPeriod;
-    }
-
     public List<Feature> getFeatures() {
-        return features;
-    }
-
-    public void setFeatures(List<Feature> features) {
-        this.features = features;
+        if (features == null) return null;
+        return Collections.unmodifiableList(features);
     }
 
     @Override
     public String toString() {
         return "ProductTier{id='" + id + "', name='" + name + "', price=" + price + " " + currency + "}";
     }
+
+    public static class Builder {
+        private final ProductTier tier = new ProductTier();
+
+        public Builder id(String id) {
+            tier.id = id;
+            return this;
+        }
+
+        public Builder slug(String slug) {
+            tier.slug = slug;
+            return this;
+        }
+
+        public Builder name(String name) {
+            tier.name = name;
+            return this;
+        }
+
+        public Builder description(String description) {
+            tier.description = description;
+            return this;
+        }
+
+        public Builder price(double price) {
+            tier.price = price;
+            return this;
+        }
+
+        public Builder currency(String currency) {
+            tier.currency = currency;
+            return this;
+        }
+
+        public Builder billingPeriod(String billingPeriod) {
+            tier.billingPeriod = billingPeriod;
+            return this;
+        }
+
+        public Builder features(List<Feature> features) {
+            tier.features = features != null ? new ArrayList<>(features) : null;
+            return this;
+        }
+
+        public ProductTier build() {
+            ProductTier built = new ProductTier();
+            built.id = tier.id;
+            built.slug = tier.slug;
+            built.name = tier.name;
+            built.description = tier.description;
+            built.price = tier.price;
+            built.currency = tier.currency;
+            built.billingPeriod = tier.billingPeriod;
+            built.features = tier.features != null ? new ArrayList<>(tier.features) : null;
+            return built.internFeatureKeys();
+        }
+    }
 }
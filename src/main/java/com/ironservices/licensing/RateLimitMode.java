@@ -0,0 +1,17 @@
+package com.ironservices.licensing;
+
+/**
+ * What a request does when its endpoint's rate limit is exhausted.
+ */
+public enum RateLimitMode {
+    /**
+     * Fail at once with a {@code rate_limited} error. Validation falls back to the license already loaded
+     * for the same key, returned as a cached result.
+     */
+    FAIL_FAST,
+
+    /**
+     * Wait for the next permit, for at most the HTTP timeout, then fail as {@link #FAIL_FAST} does.
+     */
+    QUEUE
+}
@@ -0,0 +1,16 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+
+/**
+ * Raised inside the transport when a request is refused by the client-side rate limiter.
+ */
+final class RateLimitedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    static final String ERROR = "rate_limited";
+
+    RateLimitedException() {
+        super(ERROR, null);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ironservices.licensing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket guarding one API endpoint.
+ * Holds up to {@code burst} permits, refilled continuously at {@code permitsPerSecond}. A server
+ * {@code Retry-After} blocks the endpoint entirely until it passes, whether or not a rate is configured.
+ */
+final class RateLimiter {
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double permits;
+    private long refilledAt;
+    private long blockedUntil;
+
+    /**
+     * @param permitsPerSecond Sustained rate; zero or less means unlimited
+     * @param burst            Bucket size
+     */
+    RateLimiter(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond > 0 ? permitsPerSecond / TimeUnit.SECONDS.toNanos(1) : 0;
+        this.burst = Math.max(1, burst);
+        this.permits = this.burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a permit if one is available.
+     *
+     * @return 0 if a permit was taken, otherwise how many nanoseconds until one may be
+     */
+    synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        if (now - blockedUntil < 0) {
+            return blockedUntil - now;
+        }
+        if (permitsPerNano == 0) {
+            return 0;
+        }
+        permits = Math.min(burst, permits + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        if (permits >= 1) {
+            permits -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - permits) / permitsPerNano);
+    }
+
+    /**
+     * Takes a permit, waiting up to the given time for one.
+     *
+     * @return true if a permit was taken
+     */
+    boolean acquire(long maxWaitNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (true) {
+            long wait = tryAcquire();
+            if (wait == 0) {
+                return true;
+            }
+            if (System.nanoTime() + wait - deadline > 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Refuses permits until the given delay has passed, e.g. after a 429 with Retry-After.
+     */
+    synchronized void blockFor(long nanos) {
+        long until = System.nanoTime() + nanos;
+        if (until - blockedUntil > 0) {
+            blockedUntil = until;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Elects one refresher per product and host with an exclusive lock on a file in {@code ~/.ironlicensing}.
+ * Leadership lasts for a single refresh. Whoever holds the lease calls the API and publishes the result
+ * to the {@link SharedLicenseCache}, and everyone else waits for that record instead of calling too.
+ * The operating system drops the lock if the leader dies, so a crashed process never blocks the others.
+ */
+final class RefreshLeadership implements AutoCloseable {
+    // File locks belong to the whole JVM, so clients in one process also contend on a local lock first.
+    private static final ConcurrentMap<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+    private final ReentrantLock localLock;
+    private final Log log;
+
+    private RefreshLeadership(Path path, FileChannel channel, Log log) {
+        this.channel = channel;
+        this.localLock = LOCAL_LOCKS.computeIfAbsent(path, p -> new ReentrantLock());
+        this.log = log;
+    }
+
+    /**
+     * Opens the lock file for a product, or returns null if it cannot be created.
+     */
+    static RefreshLeadership open(String productSlug, Log log) {
+        Path path = SharedLicenseCache.directory().resolve(SharedLicenseCache.fileName(productSlug, ".lock"));
+        try {
+            Files.createDirectories(path.getParent());
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            return new RefreshLeadership(path, channel, log);
+        } catch (IOException e) {
+            log.warn("Refresh leadership unavailable: {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tries to become the refresh leader without blocking.
+     *
+     * @return The lease, to be closed on the same thread once the refresh is published; null if another
+     *         process or client is refreshing
+     */
+    Lease tryAcquire() {
+        if (!localLock.tryLock()) {
+            return null;
+        }
+        try {
+            FileLock fileLock = channel.tryLock();
+            if (fileLock != null) {
+                return new Lease(fileLock);
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            log.warn("Could not take refresh lock: {0}", e.getMessage());
+        }
+        localLock.unlock();
+        return null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close refresh lock: {0}", e.getMessage());
+        }
+    }
+
+    final class Lease implements AutoCloseable {
+        private final FileLock fileLock;
+
+        private Lease(FileLock fileLock) {
+            this.fileLock = fileLock;
+        }
+
+        @Override
+        public void close() {
+            try {
+                fileLock.release();
+            } catch (IOException e) {
+                log.warn("Failed to release refresh lock: {0}", e.getMessage());
+            } finally {
+                localLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ironservices.licensing;
+
+import okhttp3.Call;
+
+import java.time.Duration;
+
+/**
+ * Deadline and cancellation handle for one logical API operation.
+ * The HTTP call made on its behalf is bounded by the remaining time, and cancelling the context cancels
+ * that call, so an abandoned future releases its connection instead of waiting for the server.
+ */
+final class RequestContext {
+    private final long deadline;
+    private final boolean hasDeadline;
+    private volatile Call call;
+    private volatile boolean cancelled;
+
+    private RequestContext(Duration timeout) {
+        this.hasDeadline = timeout != null && !timeout.isNegative() && !timeout.isZero();
+        this.deadline = hasDeadline ? System.nanoTime() + timeout.toNanos() : 0;
+    }
+
+    /**
+     * Creates a context with the given budget; null or zero means no deadline.
+     */
+    static RequestContext withTimeout(Duration timeout) {
+        return new RequestContext(timeout);
+    }
+
+    boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * Gets the time left, or {@link Long#MAX_VALUE} without a deadline.
+     */
+    long remainingNanos() {
+        return hasDeadline ? deadline - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Binds the call currently running for this context; it is cancelled at once if the context already was.
+     */
+    void attach(Call call) {
+        this.call = call;
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
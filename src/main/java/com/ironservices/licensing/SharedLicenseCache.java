@@ -0,0 +1,383 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Host-local license cache shared by every process of a product, backed by a memory-mapped file
+ * in {@code ~/.ironlicensing}.
+ * <p>
+ * The file holds one record: a fixed header followed by the license as JSON. The header also records
+ * whether the key has been activated, and for which machine ID, so activations can be shared as well as
+ * validations between processes that identify as the same machine.
+ * The record is signed with an HMAC under the {@link InstallKey} in the same directory, so a record
+ * written by hand or copied from another host is ignored.
+ * Writers serialise on a file lock and bracket their update with a sequence number that is odd while the
+ * record is being written (a seqlock), so readers never take a lock: they copy the record and retry if
+ * the sequence moved.
+ * The decoded license is kept per sequence number, so repeated reads of an unchanged record neither
+ * copy nor parse anything.
+ */
+final class SharedLicenseCache implements AutoCloseable {
+    private static final int MAGIC = 0x49524c43; // "IRLC"
+    private static final int VERSION = 3;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_SEQUENCE = 8;
+    private static final int OFFSET_VALIDATED_AT = 16;
+    private static final int OFFSET_KEY_HASH = 24;
+    private static final int OFFSET_LENGTH = 56;
+    private static final int OFFSET_FLAGS = 60;
+    private static final int OFFSET_MACHINE_HASH = 64;
+    private static final int OFFSET_MAC = 96;
+    private static final int HEADER_SIZE = OFFSET_MAC + InstallKey.MAC_SIZE;
+    private static final int HASH_SIZE = 32;
+
+    private static final int FLAG_ACTIVATED = 1;
+
+    private static final String KEY_FILE = "install.key";
+
+    private static final int SIZE_INCREMENT = 64 * 1024;
+    private static final int MAX_READ_ATTEMPTS = 64;
+
+    private static final VarHandle SEQUENCE =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // File locks are held per JVM, so clients in the same process also take a shared lock first.
+    // A ReentrantLock rather than a monitor, so a writer waiting on the file lock does not pin a virtual thread.
+    private static final ConcurrentMap<Path, ReentrantLock> WRITE_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final String productSlug;
+    private final FileChannel channel;
+    private final InstallKey installKey;
+    private final byte[] machineHash;
+    private final ReentrantLock writeLock;
+    private final Gson gson = new Gson();
+    private final Log log;
+
+    private volatile MappedByteBuffer buffer;
+    private volatile Entry last;
+    private volatile KeyHash lastKeyHash;
+
+    private SharedLicenseCache(Path path, String productSlug, String machineId, FileChannel channel,
+                               InstallKey installKey, Log log) {
+        this.path = path;
+        this.productSlug = productSlug;
+        this.channel = channel;
+        this.installKey = installKey;
+        this.machineHash = hash(machineId);
+        this.writeLock = WRITE_LOCKS.computeIfAbsent(path, p -> new ReentrantLock());
+        this.log = log;
+    }
+
+    /**
+     * Opens the shared cache for a product, or returns null if the file cannot be mapped.
+     *
+     * @param machineId The machine ID this process activates as; activation marks written under another ID are ignored
+     */
+    static SharedLicenseCache open(String productSlug, String machineId, Log log) {
+        Path path = directory().resolve(fileName(productSlug, ".cache"));
+        try {
+            Files.createDirectories(path.getParent());
+            InstallKey installKey = InstallKey.readOrCreate(path.resolveSibling(KEY_FILE));
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            SharedLicenseCache cache = new SharedLicenseCache(path, productSlug, machineId, channel, installKey, log);
+            cache.ensureCapacity(HEADER_SIZE);
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Shared license cache unavailable: {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    static Path directory() {
+        return Paths.get(System.getProperty("user.home"), ".ironlicensing");
+    }
+
+    static String fileName(String productSlug, String suffix) {
+        return productSlug.replaceAll("[^A-Za-z0-9._-]", "_") + suffix;
+    }
+
+    /**
+     * Gets the cached license for a key if it was validated within the given age.
+     *
+     * @param requireActivated Only accept a record written after the key was activated under this machine ID
+     * @return The license, or null if there is no fresh record for this key
+     */
+    License read(String licenseKey, long maxAgeMillis, boolean requireActivated) {
+        Entry entry = readEntry();
+        if (entry == null || !Arrays.equals(entry.keyHash, keyHash(licenseKey))) {
+            return null;
+        }
+        if (requireActivated && !activatedHere(entry)) {
+            return null;
+        }
+        long age = System.currentTimeMillis() - entry.validatedAt;
+        return age >= 0 && age <= maxAgeMillis ? entry.license : null;
+    }
+
+    /**
+     * Gets when the record was last written, or 0 if it is empty.
+     */
+    long lastWrittenAt() {
+        Entry entry = readEntry();
+        return entry != null ? entry.validatedAt : 0;
+    }
+
+    /**
+     * Publishes a validated license to the other processes on this host.
+     *
+     * @param activated Whether the license was just activated; the mark is kept by later writes of the same key
+     *                  from the same machine ID
+     */
+    void write(String licenseKey, License license, boolean activated) {
+        byte[] payload = gson.toJson(license).getBytes(StandardCharsets.UTF_8);
+        byte[] keyHash = keyHash(licenseKey);
+        writeLock.lock();
+        try {
+            FileLock fileLock = channel.lock();
+            try {
+                ByteBuffer target = ensureCapacity(HEADER_SIZE + payload.length);
+                long sequence = (long) SEQUENCE.getVolatile(target, OFFSET_SEQUENCE);
+                // An odd value means a writer died mid-update; the next even value is still safe to publish.
+                long next = (sequence + 2) & ~1L;
+                int flags = activated || sameKeyActivated(keyHash) ? FLAG_ACTIVATED : 0;
+                long validatedAt = System.currentTimeMillis();
+                byte[] mac = installKey.mac(signedHeader(validatedAt, flags), keyHash, machineHash, payload);
+                SEQUENCE.setVolatile(target, OFFSET_SEQUENCE, next - 1);
+                VarHandle.storeStoreFence();
+
+                target.putInt(OFFSET_MAGIC, MAGIC);
+                target.putInt(OFFSET_VERSION, VERSION);
+                target.putLong(OFFSET_VALIDATED_AT, validatedAt);
+                ByteBuffer hashSlot = target.duplicate();
+                hashSlot.position(OFFSET_KEY_HASH);
+                hashSlot.put(keyHash);
+                target.putInt(OFFSET_LENGTH, payload.length);
+                target.putInt(OFFSET_FLAGS, flags);
+                ByteBuffer machineSlot = target.duplicate();
+                machineSlot.position(OFFSET_MACHINE_HASH);
+                machineSlot.put(machineHash);
+                ByteBuffer macSlot = target.duplicate();
+                macSlot.position(OFFSET_MAC);
+                macSlot.put(mac);
+                ByteBuffer payloadSlot = target.duplicate();
+                payloadSlot.position(HEADER_SIZE);
+                payloadSlot.put(payload);
+
+                SEQUENCE.setRelease(target, OFFSET_SEQUENCE, next);
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write shared license cache: {0}", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Called with the write lock held, so the record cannot change underneath. Goes through the verified
+    // read so that a forged activation mark is not signed into the next record.
+    private boolean sameKeyActivated(byte[] keyHash) {
+        Entry current = readEntry();
+        return current != null && activatedHere(current) && Arrays.equals(current.keyHash, keyHash);
+    }
+
+    // The mark only stands for an activation of this process's machine ID, which is pluggable per client.
+    private boolean activatedHere(Entry entry) {
+        return (entry.flags & FLAG_ACTIVATED) != 0 && Arrays.equals(entry.machineHash, machineHash);
+    }
+
+    private static byte[] signedHeader(long validatedAt, int flags) {
+        return ByteBuffer.allocate(12).putLong(validatedAt).putInt(flags).array();
+    }
+
+    private Entry readEntry() {
+        MappedByteBuffer source = buffer;
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = (long) SEQUENCE.getAcquire(source, OFFSET_SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Entry cached = last;
+            if (cached != null && cached.sequence == sequence) {
+                return cached;
+            }
+            if (sequence == 0) {
+                return null;
+            }
+
+            int magic = source.getInt(OFFSET_MAGIC);
+            int version = source.getInt(OFFSET_VERSION);
+            long validatedAt = source.getLong(OFFSET_VALIDATED_AT);
+            int length = source.getInt(OFFSET_LENGTH);
+            int flags = source.getInt(OFFSET_FLAGS);
+            byte[] keyHash = null;
+            byte[] machineHash = null;
+            byte[] mac = null;
+            byte[] payload = null;
+            boolean fits = length >= 0 && length <= source.capacity() - HEADER_SIZE;
+            if (fits) {
+                ByteBuffer view = source.duplicate();
+                view.position(OFFSET_KEY_HASH);
+                keyHash = new byte[HASH_SIZE];
+                view.get(keyHash);
+                view.position(OFFSET_MACHINE_HASH);
+                machineHash = new byte[HASH_SIZE];
+                view.get(machineHash);
+                view.position(OFFSET_MAC);
+                mac = new byte[InstallKey.MAC_SIZE];
+                view.get(mac);
+                view.position(HEADER_SIZE);
+                payload = new byte[length];
+                view.get(payload);
+            }
+            VarHandle.loadLoadFence();
+            if ((long) SEQUENCE.getVolatile(source, OFFSET_SEQUENCE) != sequence) {
+                continue;
+            }
+            if (magic != MAGIC || version != VERSION) {
+                return null;
+            }
+            if (!fits) {
+                // Another process grew the file past our mapping.
+                try {
+                    source = remap();
+                } catch (IOException e) {
+                    return null;
+                }
+                continue;
+            }
+            return decode(sequence, validatedAt, flags, keyHash, machineHash, mac, payload);
+        }
+        return null;
+    }
+
+    private Entry decode(long sequence, long validatedAt, int flags, byte[] keyHash, byte[] machineHash, byte[] mac,
+                         byte[] payload) {
+        if (!installKey.verify(mac, signedHeader(validatedAt, flags), keyHash, machineHash, payload)) {
+            log.debug("Ignoring shared license cache record with a bad signature");
+            return null;
+        }
+        try {
+            License license = gson.fromJson(new String(payload, StandardCharsets.UTF_8), License.class);
+            if (license == null) {
+                return null;
+            }
+            license.internFeatureKeys();
+            Entry entry = new Entry(sequence, validatedAt, flags, keyHash, machineHash, license);
+            last = entry;
+            return entry;
+        } catch (JsonParseException e) {
+            log.warn("Ignoring unreadable shared license cache: {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    private MappedByteBuffer ensureCapacity(int required) throws IOException {
+        MappedByteBuffer current = buffer;
+        if (current != null && current.capacity() >= required) {
+            return current;
+        }
+        if (channel.size() < required) {
+            long size = ((long) required + SIZE_INCREMENT - 1) / SIZE_INCREMENT * SIZE_INCREMENT;
+            channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+        }
+        return remap();
+    }
+
+    private synchronized MappedByteBuffer remap() throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        mapped.order(ByteOrder.nativeOrder());
+        buffer = mapped;
+        return mapped;
+    }
+
+    // Records are matched by a hash of product and key, so the key itself is never compared in the clear.
+    private byte[] keyHash(String licenseKey) {
+        KeyHash cached = lastKeyHash;
+        if (cached != null && cached.key.equals(licenseKey)) {
+            return cached.hash;
+        }
+        byte[] hash = hash(licenseKey);
+        lastKeyHash = new KeyHash(licenseKey, hash);
+        return hash;
+    }
+
+    private byte[] hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(productSlug.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return digest.digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close shared license cache: {0}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedLicenseCache{" + path + "}";
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final long validatedAt;
+        final int flags;
+        final byte[] keyHash;
+        final byte[] machineHash;
+        final License license;
+
+        Entry(long sequence, long validatedAt, int flags, byte[] keyHash, byte[] machineHash, License license) {
+            this.sequence = sequence;
+            this.validatedAt = validatedAt;
+            this.flags = flags;
+            this.keyHash = keyHash;
+            this.machineHash = machineHash;
+            this.license = license;
+        }
+    }
+
+    private static final class KeyHash {
+        final String key;
+        final byte[] hash;
+
+        KeyHash(String key, byte[] hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+}
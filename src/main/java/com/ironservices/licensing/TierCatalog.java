@@ -0,0 +1,184 @@
+package com.ironservices.licensing;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches the product tier catalog.
+ * Fresh entries are served from memory. Entries past their TTL but within the stale window are served
+ * while a background refresh runs. Once the stale window is over, the caller waits for a fetch.
+ * A failed fetch keeps the last catalog that loaded successfully, and further fetches are held off for a
+ * while so an outage does not turn every lookup into a network call.
+ * Only one fetch runs at a time; callers queued behind it take its result rather than fetching again.
+ */
+final class TierCatalog {
+    private static final long FAILURE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Transport transport;
+    private final Executor executor;
+    private final Log log;
+    private final long ttlNanos;
+    private final long staleNanos;
+
+    // A lock rather than a monitor: the fetch blocks on the network, which would pin a virtual thread's carrier.
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+    private volatile long backoffUntil;
+    private volatile boolean closed;
+
+    TierCatalog(Transport transport, Executor executor, LicenseOptions options, Log log) {
+        this.transport = transport;
+        this.executor = executor;
+        this.log = log;
+        this.ttlNanos = options.getTierCacheTtl().toNanos();
+        this.staleNanos = options.getTierStaleWhileRevalidate().toNanos();
+    }
+
+    List<ProductTier> getTiers() {
+        return current().tiers;
+    }
+
+    ProductTier getById(String id) {
+        return current().byId.get(id);
+    }
+
+    ProductTier getBySlug(String slug) {
+        return current().bySlug.get(slug);
+    }
+
+    TierFeatureMatrix getMatrix() {
+        return current().matrix;
+    }
+
+    /**
+     * Gets the cached catalog without fetching, or null if none has loaded yet.
+     */
+    Snapshot peek() {
+        return snapshot;
+    }
+
+    /**
+     * Fetches the catalog now, regardless of its age.
+     */
+    Snapshot refresh() {
+        fetchLock.lock();
+        try {
+            return fetch(snapshot);
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null) {
+            long age = System.nanoTime() - s.fetchedAt;
+            if (age < ttlNanos) {
+                return s;
+            }
+            if (age < ttlNanos + staleNanos) {
+                refreshInBackground();
+                return s;
+            }
+        }
+        if (backingOff()) {
+            return s != null ? s : Snapshot.EMPTY;
+        }
+        fetchLock.lock();
+        try {
+            Snapshot latest = snapshot;
+            if (latest != null && latest != s && System.nanoTime() - latest.fetchedAt < ttlNanos) {
+                return latest;
+            }
+            // The fetch this caller queued behind failed; share its outcome instead of trying again.
+            if (backingOff()) {
+                return latest != null ? latest : Snapshot.EMPTY;
+            }
+            return fetch(latest);
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private boolean backingOff() {
+        long until = backoffUntil;
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+    private void refreshInBackground() {
+        if (closed || backingOff() || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    // Caller holds fetchLock.
+    private Snapshot fetch(Snapshot lastKnownGood) {
+        try {
+            Snapshot fresh = new Snapshot(transport.getTiers(transport.background()), System.nanoTime());
+            snapshot = fresh;
+            backoffUntil = 0;
+            return fresh;
+        } catch (IOException | RuntimeException e) {
+            // Never 0, which means no backoff.
+            backoffUntil = (System.nanoTime() + FAILURE_BACKOFF_NANOS) | 1;
+            log.warn("Failed to fetch tiers: {0}", e.getMessage());
+            return lastKnownGood != null ? lastKnownGood : Snapshot.EMPTY;
+        }
+    }
+
+    /**
+     * An immutable copy of the tier catalog, indexed by id, slug and feature.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), 0);
+
+        final List<ProductTier> tiers;
+        final Map<String, ProductTier> byId;
+        final Map<String, ProductTier> bySlug;
+        final TierFeatureMatrix matrix;
+        final long fetchedAt;
+
+        Snapshot(List<ProductTier> tiers, long fetchedAt) {
+            Map<String, ProductTier> byId = new HashMap<>();
+            Map<String, ProductTier> bySlug = new HashMap<>();
+            for (ProductTier tier : tiers) {
+                if (tier.getId() != null) {
+                    byId.put(tier.getId(), tier);
+                }
+                if (tier.getSlug() != null) {
+                    bySlug.put(tier.getSlug(), tier);
+                }
+            }
+            this.tiers = Collections.unmodifiableList(tiers);
+            this.byId = byId;
+            this.bySlug = bySlug;
+            this.matrix = tiers.isEmpty() ? TierFeatureMatrix.EMPTY : new TierFeatureMatrix(this.tiers);
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
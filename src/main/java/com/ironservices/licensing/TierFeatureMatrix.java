@@ -0,0 +1,85 @@
+package com.ironservices.licensing;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable feature-to-tier index, built once per tier catalog.
+ * Each feature maps to a bit set of the tiers that enable it, and the cheapest of those is
+ * precomputed so upsell lookups are a single hash probe.
+ */
+final class TierFeatureMatrix {
+    static final TierFeatureMatrix EMPTY = new TierFeatureMatrix(Collections.emptyList());
+
+    private final List<ProductTier> tiers;
+    private final Map<String, Integer> featureIndex;
+    private final BitSet[] featureTiers;
+    private final ProductTier[] cheapestTier;
+
+    TierFeatureMatrix(List<ProductTier> tiers) {
+        this.tiers = tiers;
+        this.featureIndex = new HashMap<>();
+
+        List<BitSet> byFeature = new ArrayList<>();
+        for (int t = 0; t < tiers.size(); t++) {
+            List<Feature> tierFeatureList = tiers.get(t).getFeatures();
+            if (tierFeatureList != null) {
+                for (Feature feature : tierFeatureList) {
+                    if (feature == null || feature.getKey() == null || !feature.isEnabled()) {
+                        continue;
+                    }
+                    Integer index = featureIndex.get(feature.getKey());
+                    if (index == null) {
+                        index = byFeature.size();
+                        featureIndex.put(feature.getKey(), index);
+                        byFeature.add(new BitSet(tiers.size()));
+                    }
+                    byFeature.get(index).set(t);
+                }
+            }
+        }
+
+        this.featureTiers = byFeature.toArray(new BitSet[0]);
+        this.cheapestTier = new ProductTier[featureTiers.length];
+        for (int f = 0; f < featureTiers.length; f++) {
+            ProductTier cheapest = null;
+            for (int t = featureTiers[f].nextSetBit(0); t >= 0; t = featureTiers[f].nextSetBit(t + 1)) {
+                ProductTier tier = tiers.get(t);
+                if (cheapest == null || tier.getPrice() < cheapest.getPrice()) {
+                    cheapest = tier;
+                }
+            }
+            cheapestTier[f] = cheapest;
+        }
+    }
+
+    /**
+     * Gets the lowest-priced tier that enables a feature; ties go to the tier listed first.
+     *
+     * @return The tier, or null if no tier enables the feature
+     */
+    ProductTier cheapestTierFor(String featureKey) {
+        Integer index = featureIndex.get(featureKey);
+        return index != null ? cheapestTier[index] : null;
+    }
+
+    /**
+     * Gets every tier that enables a feature, in catalog order.
+     */
+    List<ProductTier> tiersWith(String featureKey) {
+        Integer index = featureIndex.get(featureKey);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        BitSet set = featureTiers[index];
+        List<ProductTier> result = new ArrayList<>(set.cardinality());
+        for (int t = set.nextSetBit(0); t >= 0; t = set.nextSetBit(t + 1)) {
+            result.add(tiers.get(t));
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -2,14 +2,27 @@ package com.ironservices.licensing;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import okhttp3.*;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.net.InetAddress;
-import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -17,54 +30,110 @@ import java.util.concurrent.TimeUnit;
  */
 class Transport {
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final String ACCEPT_CBOR = "application/cbor, application/json;q=0.9";
+    private static final long DEFAULT_RETRY_AFTER_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String ERROR_TIMEOUT = "timeout";
+    private static final String ERROR_CANCELLED = "cancelled";
 
     private final String baseUrl;
     private final String publicKey;
     private final String productSlug;
-    private final boolean debug;
+    private final Log log;
     private final OkHttpClient httpClient;
     private final Gson gson;
     private final String machineId;
-
-    Transport(LicenseOptions options) {
+    private final boolean compressRequests;
+    private final int compressionThreshold;
+    private final WireFormat wireFormat;
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final double rateLimitPerSecond;
+    private final int rateLimitBurst;
+    private final RateLimitMode rateLimitMode;
+    private final long rateLimitMaxWaitNanos;
+    private final Duration interactiveTimeout;
+    private final Duration backgroundTimeout;
+
+    Transport(LicenseOptions options, Log log) {
         this.baseUrl = options.getApiBaseUrl();
         this.publicKey = options.getPublicKey();
         this.productSlug = options.getProductSlug();
-        this.debug = options.isDebug();
+        this.log = log;
         this.httpClient = new OkHttpClient.Builder()
             .connectTimeout(options.getHttpTimeout().toMillis(), TimeUnit.MILLISECONDS)
             .readTimeout(options.getHttpTimeout().toMillis(), TimeUnit.MILLISECONDS)
             .writeTimeout(options.getHttpTimeout().toMillis(), TimeUnit.MILLISECONDS)
             .build();
         this.gson = new GsonBuilder().create();
-        this.machineId = getOrCreateMachineId();
+        this.machineId = resolveMachineId(options.getMachineIdProvider());
+        this.compressRequests = options.isCompressRequests();
+        this.compressionThreshold = options.getCompressionThreshold();
+        this.wireFormat = options.getWireFormat();
+        this.rateLimitPerSecond = options.getRateLimitPerSecond();
+        this.rateLimitBurst = options.getRateLimitBurst();
+        this.rateLimitMode = options.getRateLimitMode();
+        this.rateLimitMaxWaitNanos = options.getHttpTimeout().toNanos();
+        this.interactiveTimeout = options.getInteractiveTimeout();
+        this.backgroundTimeout = options.getBackgroundTimeout();
     }
 
-    private void log(String message) {
-        if (debug) {
-            System.out.println("[IronLicensing] " + message);
+    // Only the start of a key is logged, and the prefix is cut only when debug logging is on.
+    private void logKey(String format, String licenseKey) {
+        if (log.isEnabled()) {
+            log.debug(format, licenseKey.substring(0, Math.min(10, licenseKey.length())));
         }
     }
 
-    private String getOrCreateMachineId() {
+    // A machine that cannot be identified still works, but with an ID that lasts only as long as this client.
+    private String resolveMachineId(MachineIdProvider provider) {
         try {
-            Path idPath = Paths.get(System.getProperty("user.home"), ".ironlicensing", "machine_id");
-            if (Files.exists(idPath)) {
-                return new String(Files.readAllBytes(idPath)).trim();
-            }
-            String id = UUID.randomUUID().toString();
-            Files.createDirectories(idPath.getParent());
-            Files.write(idPath, id.getBytes());
-            return id;
-        } catch (IOException e) {
-            return UUID.randomUUID().toString();
+            String id = provider.getMachineId();
+            if (id != null && !id.trim().isEmpty()) {
+                return id.trim();
+            }
+            log.warn("Machine ID provider returned no ID; using a temporary one");
+        } catch (IOException | RuntimeException e) {
+            log.warn("Machine ID provider failed: {0}", e.getMessage());
         }
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Creates a context with the budget for calls a user or request handler is waiting on.
+     */
+    RequestContext interactive() {
+        return RequestContext.withTimeout(interactiveTimeout);
+    }
+
+    /**
+     * Creates a context with the budget for refreshes nobody is waiting on.
+     */
+    RequestContext background() {
+        return RequestContext.withTimeout(backgroundTimeout);
     }
 
     String getMachineId() {
         return machineId;
     }
 
+    void close(Duration timeout) {
+        Dispatcher dispatcher = httpClient.dispatcher();
+        dispatcher.executorService().shutdown();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            while (dispatcher.runningCallsCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dispatcher.runningCallsCount() > 0) {
+            log.debug("Cancelling {0,number,#} in-flight calls", dispatcher.runningCallsCount());
+            dispatcher.cancelAll();
+        }
+        httpClient.connectionPool().evictAll();
+    }
+
     private String getHostname() {
         try {
             return InetAddress.getLocalHost().getHostName();
@@ -81,30 +150,156 @@ class Transport {
         return os;
     }
 
+    // No Accept-Encoding header is set here: OkHttp then negotiates gzip itself and
+    // decompresses the response stream as it is read.
     private Request.Builder createRequest(String path) {
-        return new Request.Builder()
+        Request.Builder builder = new Request.Builder()
             .url(baseUrl + path)
             .addHeader("Content-Type", "application/json")
             .addHeader("X-Public-Key", publicKey)
             .addHeader("X-Product-Slug", productSlug);
+        if (wireFormat == WireFormat.CBOR) {
+            builder.addHeader("Accept", ACCEPT_CBOR);
+        }
+        return builder;
+    }
+
+    // Binds a response in whichever encoding the server chose; servers that ignore the CBOR Accept header send JSON.
+    private <T> T readBody(ResponseBody body, Type type) throws IOException {
+        if (isCbor(body)) {
+            return Cbor.decode(gson, body.bytes(), type);
+        }
+        return gson.fromJson(body.charStream(), type);
+    }
+
+    // Every call goes through its endpoint's token bucket, and a 429 or 503 with Retry-After closes the bucket
+    // until the server's deadline so the rest of the process backs off too.
+    private Response execute(Request request, RequestContext context) throws IOException {
+        if (context.isCancelled()) {
+            throw new IOException(ERROR_CANCELLED);
+        }
+        RateLimiter limiter = rateLimiters.computeIfAbsent(request.url().encodedPath(),
+            path -> new RateLimiter(rateLimitPerSecond, rateLimitBurst));
+        boolean admitted;
+        if (rateLimitMode == RateLimitMode.QUEUE) {
+            try {
+                admitted = limiter.acquire(Math.min(rateLimitMaxWaitNanos, context.remainingNanos()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a rate limit permit");
+            }
+        } else {
+            admitted = limiter.tryAcquire() == 0;
+        }
+        if (!admitted) {
+            if (log.isEnabled()) {
+                log.debug("Rate limited locally: {0}", request.url().encodedPath());
+            }
+            throw new RateLimitedException();
+        }
+
+        Call call = httpClient.newCall(request);
+        if (context.hasDeadline()) {
+            long remaining = context.remainingNanos();
+            if (remaining <= 0) {
+                throw new InterruptedIOException(ERROR_TIMEOUT);
+            }
+            call.timeout().timeout(remaining, TimeUnit.NANOSECONDS);
+        }
+        context.attach(call);
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            if (context.isCancelled()) {
+                throw new IOException(ERROR_CANCELLED, e);
+            }
+            throw e;
+        }
+        if (response.code() == 429 || (response.code() == 503 && response.header("Retry-After") != null)) {
+            long delay = retryAfterNanos(response.header("Retry-After"));
+            if (log.isEnabled()) {
+                log.debug("Server asked to back off {0,number,#} ms: {1}",
+                    TimeUnit.NANOSECONDS.toMillis(delay), request.url().encodedPath());
+            }
+            limiter.blockFor(delay);
+        }
+        return response;
+    }
+
+    private static long retryAfterNanos(String header) {
+        if (header != null) {
+            try {
+                return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(header.trim())));
+            } catch (NumberFormatException e) {
+                try {
+                    Instant until = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    return Math.max(0, Duration.between(Instant.now(), until).toNanos());
+                } catch (DateTimeParseException ignored) {
+                    // Fall through to the default.
+                }
+            }
+        }
+        return DEFAULT_RETRY_AFTER_NANOS;
+    }
+
+    private static boolean isCbor(ResponseBody body) {
+        MediaType contentType = body.contentType();
+        return contentType != null && "cbor".equalsIgnoreCase(contentType.subtype());
+    }
+
+    private Request postJson(String path, Object body) {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        if (!compressRequests || bytes.length < compressionThreshold) {
+            return createRequest(path).post(RequestBody.create(bytes, JSON)).build();
+        }
+        return createRequest(path)
+            .header("Content-Encoding", "gzip")
+            .post(gzip(bytes))
+            .build();
+    }
+
+    private static RequestBody gzip(byte[] bytes) {
+        Buffer buffer = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(buffer))) {
+            sink.write(bytes);
+        } catch (IOException e) {
+            // Writing to an in-memory buffer cannot fail.
+            throw new UncheckedIOException(e);
+        }
+        return RequestBody.create(buffer.readByteString(), JSON);
+    }
+
+    private String readError(ResponseBody body, String fallback) {
+        if (body == null) {
+            return fallback;
+        }
+        try {
+            JsonElement json = isCbor(body) ? Cbor.decode(body.bytes()) : JsonParser.parseReader(body.charStream());
+            if (json.isJsonObject() && json.getAsJsonObject().has("error")
+                    && json.getAsJsonObject().get("error").isJsonPrimitive()) {
+                return json.getAsJsonObject().get("error").getAsString();
+            }
+        } catch (IOException | JsonParseException e) {
+            log.warn("Unparseable error response: {0}", e.getMessage());
+        }
+        return fallback;
     }
 
-    LicenseResult validate(String licenseKey) {
-        log("Validating: " + licenseKey.substring(0, Math.min(10, licenseKey.length())) + "...");
+    LicenseResult validate(String licenseKey, RequestContext context) {
+        logKey("Validating: {0}...", licenseKey);
 
         Map<String, String> body = new HashMap<>();
         body.put("licenseKey", licenseKey);
         body.put("machineId", machineId);
 
-        Request request = createRequest("/api/v1/validate")
-            .post(RequestBody.create(gson.toJson(body), JSON))
-            .build();
+        Request request = postJson("/api/v1/validate", body);
 
-        return executeRequest(request);
+        return executeRequest(request, context);
     }
 
-    LicenseResult activate(String licenseKey, String machineName) {
-        log("Activating: " + licenseKey.substring(0, Math.min(10, licenseKey.length())) + "...");
+    LicenseResult activate(String licenseKey, String machineName, RequestContext context) {
+        logKey("Activating: {0}...", licenseKey);
 
         if (machineName == null || machineName.isEmpty()) {
             machineName = getHostname();
@@ -116,105 +311,207 @@ class Transport {
         body.put("machineName", machineName);
         body.put("platform", getPlatform());
 
-        Request request = createRequest("/api/v1/activate")
-            .post(RequestBody.create(gson.toJson(body), JSON))
-            .build();
+        Request request = postJson("/api/v1/activate", body);
 
-        return executeRequest(request);
+        return executeRequest(request, context);
     }
 
-    boolean deactivate(String licenseKey) {
-        log("Deactivating license");
+    boolean deactivate(String licenseKey, RequestContext context) {
+        log.debug("Deactivating license");
 
         Map<String, String> body = new HashMap<>();
         body.put("licenseKey", licenseKey);
         body.put("machineId", machineId);
 
-        Request request = createRequest("/api/v1/deactivate")
-            .post(RequestBody.create(gson.toJson(body), JSON))
-            .build();
+        Request request = postJson("/api/v1/deactivate", body);
 
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = execute(request, context)) {
             return response.isSuccessful();
         } catch (IOException e) {
-            log("Deactivation failed: " + e.getMessage());
+            log.warn("Deactivation failed: {0}", e.getMessage());
             return false;
         }
     }
 
-    LicenseResult startTrial(String email) {
-        log("Starting trial for: " + email);
+    ActivationPage listActivations(String licenseKey, String cursor, int limit, RequestContext context)
+            throws IOException {
+        if (cursor != null) {
+            log.debug("Listing activations from cursor {0}", cursor);
+        } else {
+            log.debug("Listing activations");
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("licenseKey", licenseKey);
+        body.put("cursor", cursor);
+        body.put("limit", limit);
+
+        Request request = postJson("/api/v1/activations", body);
+
+        try (Response response = execute(request, context)) {
+            ResponseBody responseBody = response.body();
+            if (!response.isSuccessful() || responseBody == null) {
+                throw new IOException("Listing activations failed: "
+                    + readError(responseBody, "HTTP " + response.code()));
+            }
+            ActivationPage page = readBody(responseBody, ActivationPage.class);
+            return page != null ? page : new ActivationPage();
+        } catch (JsonParseException e) {
+            throw new IOException("Unreadable activations page", e);
+        }
+    }
+
+    Set<String> deactivateMachines(String licenseKey, Collection<String> machineIds, RequestContext context)
+            throws IOException {
+        log.debug("Deactivating {0,number,#} machines", machineIds.size());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("licenseKey", licenseKey);
+        body.put("machineIds", machineIds);
+
+        Request request = postJson("/api/v1/deactivate/batch", body);
+
+        try (Response response = execute(request, context)) {
+            ResponseBody responseBody = response.body();
+            if (!response.isSuccessful() || responseBody == null) {
+                throw new IOException("Batch deactivation failed: "
+                    + readError(responseBody, "HTTP " + response.code()));
+            }
+            Type type = new TypeToken<Map<String, List<String>>>(){}.getType();
+            Map<String, List<String>> result = readBody(responseBody, type);
+            if (result == null || result.get("deactivated") == null) {
+                return Collections.emptySet();
+            }
+            return new HashSet<>(result.get("deactivated"));
+        } catch (JsonParseException e) {
+            throw new IOException("Unreadable batch deactivation response", e);
+        }
+    }
+
+    LicenseResult startTrial(String email, RequestContext context) {
+        log.debug("Starting trial for: {0}", email);
 
         Map<String, String> body = new HashMap<>();
         body.put("email", email);
         body.put("machineId", machineId);
 
-        Request request = createRequest("/api/v1/trial")
-            .post(RequestBody.create(gson.toJson(body), JSON))
-            .build();
+        Request request = postJson("/api/v1/trial", body);
 
-        return executeRequest(request);
+        return executeRequest(request, context);
     }
 
-    List<ProductTier> getTiers() {
-        log("Fetching product tiers");
+    List<ProductTier> getTiers(RequestContext context) throws IOException {
+        log.debug("Fetching product tiers");
 
         Request request = createRequest("/api/v1/tiers")
             .get()
             .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful() && response.body() != null) {
-                String json = response.body().string();
-                Type type = new TypeToken<Map<String, List<ProductTier>>>(){}.getType();
-                Map<String, List<ProductTier>> result = gson.fromJson(json, type);
-                return result.getOrDefault("tiers", Collections.emptyList());
+        try (Response response = execute(request, context)) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Unexpected response fetching tiers: HTTP " + response.code());
             }
-        } catch (IOException e) {
-            log("Failed to fetch tiers: " + e.getMessage());
+            Type type = new TypeToken<Map<String, List<ProductTier>>>(){}.getType();
+            Map<String, List<ProductTier>> result = readBody(response.body(), type);
+            if (result == null || result.get("tiers") == null) {
+                return Collections.emptyList();
+            }
+            List<ProductTier> tiers = result.get("tiers");
+            for (ProductTier tier : tiers) {
+                if (tier != null) {
+                    tier.internFeatureKeys();
+                }
+            }
+            return tiers;
         }
-        return Collections.emptyList();
     }
 
-    CheckoutResult startCheckout(String tierId, String email) {
-        log("Starting checkout for tier: " + tierId);
+    CheckoutResult startCheckout(String tierId, String email, RequestContext context) {
+        log.debug("Starting checkout for tier: {0}", tierId);
 
         Map<String, String> body = new HashMap<>();
         body.put("tierId", tierId);
         body.put("email", email);
 
-        Request request = createRequest("/api/v1/checkout")
-            .post(RequestBody.create(gson.toJson(body), JSON))
-            .build();
+        Request request = postJson("/api/v1/checkout", body);
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            String json = response.body() != null ? response.body().string() : "{}";
+        try (Response response = execute(request, context)) {
+            ResponseBody responseBody = response.body();
             if (response.isSuccessful()) {
-                CheckoutResult result = gson.fromJson(json, CheckoutResult.class);
+                CheckoutResult result = responseBody != null
+                    ? readBody(responseBody, CheckoutResult.class) : null;
+                if (result == null) {
+                    return CheckoutResult.failure(ErrorCode.INVALID_RESPONSE, "Empty checkout response", response.code());
+                }
                 result.setSuccess(true);
+                result.setHttpStatus(response.code());
                 return result;
             } else {
-                Map<String, String> errorResponse = gson.fromJson(json,
-                    new TypeToken<Map<String, String>>(){}.getType());
-                return CheckoutResult.failure(errorResponse.getOrDefault("error", "Checkout failed"));
+                String error = readError(responseBody, null);
+                ErrorCode code = ErrorCode.of(error, response.code());
+                return CheckoutResult.failure(code, error != null ? error : defaultMessage(code, "Checkout failed"),
+                    response.code());
             }
-        } catch (IOException e) {
-            return CheckoutResult.failure(e.getMessage());
+        } catch (IOException | JsonParseException e) {
+            ErrorCode code = classify(e, context);
+            return CheckoutResult.failure(code, defaultMessage(code, e.getMessage()), 0);
         }
     }
 
-    private LicenseResult executeRequest(Request request) {
-        try (Response response = httpClient.newCall(request).execute()) {
-            String json = response.body() != null ? response.body().string() : "{}";
+    private LicenseResult executeRequest(Request request, RequestContext context) {
+        try (Response response = execute(request, context)) {
+            ResponseBody responseBody = response.body();
             if (response.isSuccessful()) {
-                return gson.fromJson(json, LicenseResult.class);
+                LicenseResult result = responseBody != null
+                    ? readBody(responseBody, LicenseResult.class) : null;
+                if (result == null) {
+                    return LicenseResult.failure(ErrorCode.INVALID_RESPONSE, "Empty response", response.code());
+                }
+                if (result.getLicense() != null) {
+                    result.getLicense().internFeatureKeys();
+                }
+                result.setHttpStatus(response.code());
+                return result;
             } else {
-                Map<String, String> errorResponse = gson.fromJson(json,
-                    new TypeToken<Map<String, String>>(){}.getType());
-                return LicenseResult.failure(errorResponse.getOrDefault("error", "Request failed"));
+                String error = readError(responseBody, null);
+                ErrorCode code = ErrorCode.of(error, response.code());
+                return LicenseResult.failure(code, error != null ? error : defaultMessage(code, "Request failed"),
+                    response.code());
             }
-        } catch (IOException e) {
-            return LicenseResult.failure(e.getMessage());
+        } catch (IOException | JsonParseException e) {
+            ErrorCode code = classify(e, context);
+            return LicenseResult.failure(code, defaultMessage(code, e.getMessage()), 0);
+        }
+    }
+
+    // Socket timeouts and call deadlines both surface as InterruptedIOException; report them the same way.
+    private static ErrorCode classify(Exception e, RequestContext context) {
+        if (e instanceof RateLimitedException) {
+            return ErrorCode.RATE_LIMITED;
+        }
+        if (context.isCancelled()) {
+            return ErrorCode.CANCELLED;
+        }
+        if (e instanceof InterruptedIOException) {
+            return ErrorCode.TIMEOUT;
+        }
+        if (e instanceof JsonParseException) {
+            return ErrorCode.INVALID_RESPONSE;
+        }
+        return ErrorCode.NETWORK;
+    }
+
+    // Keeps the error strings callers matched on before error codes existed.
+    private static String defaultMessage(ErrorCode code, String fallback) {
+        switch (code) {
+            case RATE_LIMITED:
+                return RateLimitedException.ERROR;
+            case TIMEOUT:
+                return ERROR_TIMEOUT;
+            case CANCELLED:
+                return ERROR_CANCELLED;
+            default:
+                return fallback;
         }
     }
 }
@@ -0,0 +1,55 @@
+package com.ironservices.licensing;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runtime lookup of virtual-thread executors, so the SDK can use them on JDK 21+
+ * while still compiling and running on Java 11. Earlier JVMs, including the preview releases, report no support.
+ */
+final class VirtualThreads {
+    private static final MethodHandle NEW_EXECUTOR = lookup();
+
+    private VirtualThreads() {}
+
+    private static MethodHandle lookup() {
+        // JDK 19 and 20 have the method as a preview API, which throws unless preview features are enabled.
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class,
+                "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the running JVM supports virtual threads.
+     */
+    static boolean isAvailable() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor.
+     *
+     * @throws UnsupportedOperationException if virtual threads are not available
+     */
+    static ExecutorService newExecutor() {
+        if (NEW_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ironservices.licensing;
+
+/**
+ * Encoding requested for API responses.
+ */
+public enum WireFormat {
+    /**
+     * JSON, supported by every API version.
+     */
+    JSON,
+
+    /**
+     * CBOR (RFC 8949), requested through the Accept header. Servers that do not support it answer in JSON,
+     * which the client reads as usual.
+     * <p>
+     * Bodies are around a fifth smaller than JSON, but decoding them costs more CPU: the models are bound
+     * through Gson's tree adapter, which is slower than streaming JSON. Use it to save bandwidth on slow or
+     * metered links, not to speed up parsing.
+     */
+    CBOR
+}
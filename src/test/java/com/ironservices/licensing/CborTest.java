@@ -0,0 +1,145 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CborTest {
+    private static final String LICENSE = "{\"id\":\"lic_1\",\"key\":\"IRON-CBOR\",\"status\":\"valid\","
+        + "\"type\":\"subscription\",\"email\":\"dev@example.com\",\"maxActivations\":5,\"currentActivations\":2,"
+        + "\"expiresAt\":\"2030-01-01T00:00:00Z\",\"metadata\":{\"tierRank\":2,\"ratio\":0.5,\"tags\":[\"a\",\"b\"]},"
+        + "\"features\":[{\"key\":\"export\",\"name\":\"Export\",\"enabled\":true,\"limit\":10},"
+        + "{\"key\":\"beta\",\"name\":\"Beta\",\"enabled\":false,\"description\":null}]}";
+
+    private final Gson gson = new Gson();
+
+    // Binds the same body from JSON and from CBOR; both must produce the same model.
+    private <T> void assertRoundTrip(String json, Type type) {
+        T fromJson = gson.fromJson(json, type);
+        T fromCbor = Cbor.decode(gson, Cbor.encode(JsonParser.parseString(json)), type);
+
+        assertEquals(gson.toJson(fromJson), gson.toJson(fromCbor));
+    }
+
+    @Test
+    void licenseResult() {
+        assertRoundTrip("{\"valid\":true,\"license\":" + LICENSE + ",\"activations\":[{\"id\":\"act_1\","
+            + "\"machineId\":\"m1\",\"machineName\":\"Build box\",\"platform\":\"linux\","
+            + "\"activatedAt\":\"2024-05-01T10:00:00Z\",\"lastSeenAt\":\"2024-05-02T10:00:00Z\"}]}",
+            LicenseResult.class);
+        assertRoundTrip("{\"valid\":false,\"error\":\"license_revoked\"}", LicenseResult.class);
+    }
+
+    @Test
+    void activationPage() {
+        assertRoundTrip("{\"activations\":[{\"id\":\"act_1\",\"machineId\":\"m1\"}],\"nextCursor\":\"100\"}",
+            ActivationPage.class);
+    }
+
+    @Test
+    void batchDeactivation() {
+        Type type = new TypeToken<Map<String, List<String>>>(){}.getType();
+        assertRoundTrip("{\"deactivated\":[\"m1\",\"m2\"]}", type);
+
+        Map<String, List<String>> decoded = Cbor.decode(gson,
+            Cbor.encode(JsonParser.parseString("{\"deactivated\":[\"m1\"]}")), type);
+        assertEquals(List.of("m1"), decoded.get("deactivated"));
+    }
+
+    @Test
+    void tiers() {
+        Type type = new TypeToken<Map<String, List<ProductTier>>>(){}.getType();
+        assertRoundTrip("{\"tiers\":[{\"id\":\"tier-pro\",\"slug\":\"pro\",\"name\":\"Pro\",\"price\":29.99,"
+            + "\"currency\":\"USD\",\"billingPeriod\":\"monthly\",\"features\":[{\"key\":\"export\","
+            + "\"name\":\"Export\",\"enabled\":true}]}]}", type);
+    }
+
+    @Test
+    void checkoutResult() {
+        assertRoundTrip("{\"checkoutUrl\":\"https://pay.example.com/s/1\",\"sessionId\":\"s1\"}",
+            CheckoutResult.class);
+    }
+
+    @Test
+    void errorBody() {
+        assertRoundTrip("{\"error\":\"max_activations_reached\"}", new TypeToken<Map<String, Object>>(){}.getType());
+    }
+
+    @Test
+    void treeRoundTripKeepsValues() {
+        JsonElement tree = JsonParser.parseString("{\"n\":-1,\"big\":4294967296,\"f\":1.5,\"t\":true,"
+            + "\"z\":null,\"s\":\"héllo\",\"a\":[],\"o\":{}}");
+
+        assertEquals(tree, Cbor.decode(Cbor.encode(tree)));
+    }
+
+    @Test
+    void indefiniteLengthsAndHalfFloats() {
+        // {_ "a": [_ 1, 1.5 (half)], "b": "x"}
+        byte[] data = {(byte) 0xbf, 0x61, 'a', (byte) 0x9f, 0x01, (byte) 0xf9, 0x3e, 0x00, (byte) 0xff,
+            0x61, 'b', 0x61, 'x', (byte) 0xff};
+
+        assertEquals(JsonParser.parseString("{\"a\":[1,1.5],\"b\":\"x\"}"), Cbor.decode(data));
+    }
+
+    @Test
+    void rejectsTruncatedAndTrailingData() {
+        byte[] encoded = Cbor.encode(JsonParser.parseString("{\"a\":\"text\"}"));
+        byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        byte[] trailing = new byte[encoded.length + 1];
+        System.arraycopy(encoded, 0, trailing, 0, encoded.length);
+
+        assertThrows(JsonParseException.class, () -> Cbor.decode(truncated));
+        assertThrows(JsonParseException.class, () -> Cbor.decode(trailing));
+    }
+
+    @Test
+    void encodesIntegersCompactly() {
+        assertArrayEquals(new byte[] {0x17}, Cbor.encode(JsonParser.parseString("23")));
+        assertArrayEquals(new byte[] {0x18, 0x18}, Cbor.encode(JsonParser.parseString("24")));
+        assertArrayEquals(new byte[] {0x20}, Cbor.encode(JsonParser.parseString("-1")));
+    }
+
+    @Test
+    void clientSpeaksCborEndToEnd() throws Exception {
+        try (MockLicenseServer server = new MockLicenseServer()
+                .addLicense("IRON-CBOR", "valid", "perpetual", "export")
+                .addTier("tier-pro", "pro", "Pro", 29.0, "export")
+                .setCborResponses(true)
+                .start();
+             LicenseClient client = new LicenseClient(LicenseOptions.builder("pk_test", "cbor-test")
+                .apiBaseUrl(server.getBaseUrl())
+                .enableOfflineCache(false)
+                .wireFormat(WireFormat.CBOR)
+                .build())) {
+            server.addActivation("IRON-CBOR", "m1", "One", Instant.now())
+                .addActivation("IRON-CBOR", "m2", "Two", Instant.now());
+
+            assertTrue(client.validate("IRON-CBOR").isValid());
+            assertTrue(client.hasFeature("export"));
+            assertEquals(1, client.getTiers().size());
+            assertEquals("tier-pro", client.getCheapestTierFor("export").getId());
+            assertEquals(Set.of("m1", "m2"),
+                client.listActivations("IRON-CBOR", 1).map(Activation::getMachineId).collect(Collectors.toSet()));
+            assertEquals(Set.of("m1"), client.deactivateMachines("IRON-CBOR", List.of("m1")));
+            assertTrue(client.startPurchase("tier-pro", "dev@example.com").isSuccess());
+            assertEquals(ErrorCode.INVALID_KEY, client.validate("IRON-MISSING").getErrorCode());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntitlementRuleTest {
+    private static License license(String expiresAt) {
+        return License.builder()
+            .key("IRON-RULES")
+            .status(LicenseStatus.VALID)
+            .type(LicenseType.SUBSCRIPTION)
+            .maxActivations(5)
+            .currentActivations(3)
+            .features(List.of(new Feature("export", "Export", true, null, null, 10L),
+                new Feature("beta", "Beta", false)))
+            .metadata(Map.of("tierRank", 2, "tier", "pro", "early", true))
+            .expiresAt(expiresAt)
+            .build();
+    }
+
+    private static boolean eval(String rule) {
+        return EntitlementRule.compile(rule).test(license(null));
+    }
+
+    @Test
+    void evaluatesTermsAndOperators() {
+        assertTrue(eval("feature('export') && !feature('beta')"));
+        assertTrue(eval("currentActivations < maxActivations"));
+        assertTrue(eval("type == 'SUBSCRIPTION' && status != 'revoked'"));
+        assertTrue(eval("valid && !trial && !expired"));
+        assertTrue(eval("limit('export') >= 10 && limit('beta') == 0"));
+        assertTrue(eval("(limit('export')) > 5"));
+        assertFalse(eval("trial || expired"));
+        assertTrue(eval("false || true && true"));
+    }
+
+    @Test
+    void metadataTakesTheTypeOfItsComparison() {
+        assertTrue(eval("meta('tierRank') >= 2"));
+        assertTrue(eval("meta('tier') == 'Pro'"));
+        assertTrue(eval("meta('early')"));
+        assertFalse(eval("meta('missing') < 1 || meta('missing') >= 1"));
+    }
+
+    @Test
+    void comparisonsWithMissingMetadataAreFalse() {
+        assertFalse(eval("meta('missing') == 1 || meta('missing') != 1"));
+        assertFalse(eval("meta('missing') == 'a' || meta('missing') != 'a'"));
+        assertFalse(eval("meta('missing') == false || meta('missing') != true"));
+        assertFalse(eval("false == meta('missing') || true != meta('missing')"));
+        assertFalse(eval("meta('missing') == meta('absent')"));
+        assertFalse(eval("meta('missing')"));
+
+        assertTrue(eval("meta('tierRank') != 1 && meta('tier') != 'free' && meta('early') != false"));
+        assertTrue(eval("meta('early') == true && meta('tier') == 'pro'"));
+    }
+
+    @Test
+    void expiredFollowsExpiresAt() {
+        EntitlementRule rule = EntitlementRule.compile("expired");
+
+        assertTrue(rule.test(license(Instant.now().minusSeconds(60).toString())));
+        assertFalse(rule.test(license(Instant.now().plusSeconds(60).toString())));
+    }
+
+    @Test
+    void nullLicenseNeverSatisfiesARule() {
+        assertFalse(EntitlementRule.compile("true").test(null));
+    }
+
+    @Test
+    void rejectsMalformedRules() {
+        for (String rule : new String[] {"feature(export)", "status > 'a'", "maxActivations == 'x'", "unknown",
+                "limit('x')", "valid &&", "valid )", "'unterminated"}) {
+            assertThrows(IllegalArgumentException.class, () -> EntitlementRule.compile(rule), rule);
+        }
+    }
+
+    @Test
+    void errorsNameThePosition() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> EntitlementRule.compile("valid && bogus"));
+
+        assertTrue(e.getMessage().contains("position 9"), e.getMessage());
+    }
+
+    @Test
+    void entitlementsFollowLicenseChanges() {
+        Entitlements entitlements = new Entitlements();
+        Entitlement export = entitlements.define("export", "feature('export') && !expired");
+
+        assertFalse(export.isGranted());
+        entitlements.update(license(null));
+        assertTrue(export.isGranted());
+        assertTrue(entitlements.isGranted("export"));
+        entitlements.update(null);
+        assertFalse(export.isGranted());
+    }
+
+    @Test
+    void entitlementsRefreshWhenLicenseExpires() throws Exception {
+        Entitlements entitlements = new Entitlements();
+        Entitlement active = entitlements.define("active", "!expired");
+        entitlements.update(license(Instant.now().plusMillis(200).toString()));
+
+        assertTrue(active.isGranted());
+        Thread.sleep(300);
+        assertFalse(active.isGranted());
+    }
+
+    @Test
+    void redefiningANameRequiresTheSameRule() {
+        Entitlements entitlements = new Entitlements();
+        Entitlement first = entitlements.define("x", "valid");
+
+        assertSame(first, entitlements.define("x", "valid"));
+        assertThrows(IllegalArgumentException.class, () -> entitlements.define("x", "trial"));
+        assertNull(entitlements.get("y"));
+        assertEquals("valid", first.getRule().getExpression());
+    }
+}
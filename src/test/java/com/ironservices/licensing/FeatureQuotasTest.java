@@ -0,0 +1,115 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeatureQuotasTest {
+    private static License license(long seats, boolean exportEnabled) {
+        return License.builder()
+            .key("IRON-QUOTA")
+            .status(LicenseStatus.VALID)
+            .features(List.of(new Feature("seats", "Seats", true, null, null, seats),
+                new Feature("export", "Export", exportEnabled),
+                new Feature("unlimited", "Unlimited", true)))
+            .build();
+    }
+
+    @Test
+    void limitsComeFromEnabledFeatures() {
+        FeatureQuotas quotas = FeatureQuotas.of(license(5, false), null);
+
+        assertEquals(5, quotas.getLimit("seats"));
+        assertEquals(Feature.UNLIMITED, quotas.getLimit("unlimited"));
+        assertEquals(0, quotas.getLimit("export"));
+        assertEquals(0, quotas.getLimit(null));
+    }
+
+    @Test
+    void limitsFallBackToMetadata() {
+        License license = License.builder()
+            .key("IRON-QUOTA")
+            .status(LicenseStatus.VALID)
+            .features(List.of(new Feature("projects", "Projects", true, null, Map.of("limit", 3)),
+                new Feature("notes", "Notes", true, null, Map.of("note", "limit"))))
+            .build();
+
+        FeatureQuotas quotas = FeatureQuotas.of(license, null);
+
+        assertEquals(3, quotas.getLimit("projects"));
+        assertEquals(Feature.UNLIMITED, quotas.getLimit("notes"));
+    }
+
+    @Test
+    void consumeStopsAtTheLimit() {
+        FeatureQuotas quotas = FeatureQuotas.of(license(5, true), null);
+
+        assertTrue(quotas.tryConsume("seats", 3));
+        assertFalse(quotas.tryConsume("seats", 3));
+        assertTrue(quotas.tryConsume("seats", 2));
+        assertFalse(quotas.tryConsume("export-missing", 1));
+        quotas.release("seats", 10);
+        assertEquals(0, quotas.getUsage("seats"));
+    }
+
+    @Test
+    void usageCarriesOverToANewLicense() {
+        FeatureQuotas first = FeatureQuotas.of(license(5, true), null);
+        first.tryConsume("seats", 4);
+
+        FeatureQuotas second = FeatureQuotas.of(license(10, true), first);
+
+        assertEquals(4, second.getUsage("seats"));
+        assertEquals(10, second.getLimit("seats"));
+    }
+
+    @Test
+    void consumptionThroughReplacedQuotasIsKept() {
+        FeatureQuotas first = FeatureQuotas.of(license(5, true), null);
+        FeatureQuotas second = FeatureQuotas.of(license(10, true), first);
+
+        // A caller that loaded the old quotas just before the swap still counts against the new ones.
+        assertTrue(first.tryConsume("seats", 3));
+
+        assertEquals(3, second.getUsage("seats"));
+        assertFalse(second.tryConsume("seats", 8));
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedTheLimit() throws Exception {
+        FeatureQuotas quotas = FeatureQuotas.of(license(1000, true), null);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (quotas.tryConsume("seats", 1)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, granted.get());
+        assertEquals(1000, quotas.getUsage("seats"));
+    }
+}
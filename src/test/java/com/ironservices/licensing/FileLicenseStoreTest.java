@@ -0,0 +1,76 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileLicenseStoreTest {
+    @TempDir
+    Path directory;
+
+    private static LicenseSnapshot snapshot(String key, String name) {
+        License license = License.builder().key(key).name(name).status(LicenseStatus.VALID).build();
+        return new LicenseSnapshot(key, license, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private Path licenseFile(Path in) throws Exception {
+        try (Stream<Path> files = Files.list(in)) {
+            return files.filter(p -> p.toString().endsWith(".license")).findFirst().orElseThrow();
+        }
+    }
+
+    @Test
+    void roundTripsSnapshots() throws Exception {
+        FileLicenseStore store = new FileLicenseStore(directory);
+        LicenseSnapshot saved = snapshot("IRON-A", "first");
+
+        store.save(saved);
+        LicenseSnapshot loaded = new FileLicenseStore(directory).load("IRON-A");
+
+        assertNotNull(loaded);
+        assertEquals("first", loaded.getLicense().getName());
+        assertEquals(saved.getValidatedAt(), loaded.getValidatedAt());
+        assertNull(store.load("IRON-B"));
+        assertTrue(Files.exists(directory.resolve("install.key")));
+
+        store.delete("IRON-A");
+        assertNull(store.load("IRON-A"));
+    }
+
+    @Test
+    void editedFilesAreIgnored() throws Exception {
+        FileLicenseStore store = new FileLicenseStore(directory);
+        store.save(snapshot("IRON-A", "first"));
+        Path file = licenseFile(directory);
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+        Files.write(file, content.replace("\"valid\"", "\"trial\"").getBytes(StandardCharsets.UTF_8));
+
+        assertNull(new FileLicenseStore(directory).load("IRON-A"));
+    }
+
+    @Test
+    void filesFromAnotherInstallAreIgnored() throws Exception {
+        Path other = directory.resolve("other");
+        new FileLicenseStore(other).save(snapshot("IRON-A", "elsewhere"));
+        FileLicenseStore store = new FileLicenseStore(directory.resolve("here"));
+        store.save(snapshot("IRON-B", "local"));
+
+        Path copied = licenseFile(other);
+        Files.copy(copied, directory.resolve("here").resolve(copied.getFileName()));
+
+        assertNull(store.load("IRON-A"));
+        assertNotNull(store.load("IRON-B"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IronLicensingTest {
+    private MockLicenseServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockLicenseServer()
+            .addLicense("IRON-VALID", "valid", "perpetual", "premium")
+            .start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        IronLicensing.shutdown();
+        server.close();
+    }
+
+    private LicenseOptions options() {
+        return LicenseOptions.builder("pk_test", "facade-test")
+            .apiBaseUrl(server.getBaseUrl())
+            .build();
+    }
+
+    @Test
+    void callsBeforeInitFail() {
+        assertThrows(IllegalStateException.class, () -> IronLicensing.validate("IRON-VALID"));
+    }
+
+    // Calls racing a reinit must land on one client or the other, never on a closed one.
+    @Test
+    void reinitDoesNotFailCallsInFlight() throws Exception {
+        IronLicensing.init(options());
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                while (!done.get()) {
+                    try {
+                        if (!IronLicensing.validate("IRON-VALID").isValid()
+                                || !IronLicensing.validateAsync("IRON-VALID").join().isValid()) {
+                            failure.set(new AssertionError("validation failed"));
+                        }
+                    } catch (RuntimeException e) {
+                        failure.set(e);
+                    }
+                }
+            });
+            callers.add(thread);
+            thread.start();
+        }
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(10);
+            IronLicensing.reinit(options());
+        }
+        done.set(true);
+        for (Thread thread : callers) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(IronLicensing.hasFeature("premium"));
+    }
+}
@@ -0,0 +1,318 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LicenseClientTest {
+    private MockLicenseServer server;
+    private LicenseClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockLicenseServer()
+            .addLicense("IRON-VALID", "valid", "perpetual", "premium", "seats=3")
+            .addLicense("IRON-REVOKED", "revoked", "perpetual")
+            .addTier("tier-basic", "basic", "Basic", 9.0, "export")
+            .addTier("tier-pro", "pro", "Pro", 29.0, "export", "premium")
+            .start();
+        client = new LicenseClient(options().build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private LicenseOptions.Builder options() {
+        return LicenseOptions.builder("pk_test", "client-test")
+            .apiBaseUrl(server.getBaseUrl())
+            .enableOfflineCache(false);
+    }
+
+    @Test
+    void validateLoadsLicenseAndFeatures() {
+        LicenseResult result = client.validate("IRON-VALID");
+
+        assertTrue(result.isValid());
+        assertEquals(LicenseStatus.VALID, client.getStatus());
+        assertTrue(client.hasFeature("premium"));
+        assertFalse(client.hasFeature("missing"));
+        assertEquals(3, client.getLimit("seats"));
+    }
+
+    @Test
+    void revalidatingAnUnchangedLicenseIsNotAChange() throws Exception {
+        List<Boolean> changes = new CopyOnWriteArrayList<>();
+        client.setOnLicenseChanged(license -> changes.add(license.hasFeature("premium")));
+
+        client.validate("IRON-VALID");
+        Thread.sleep(5);
+        client.validate("IRON-VALID");
+        server.addLicense("IRON-VALID", "valid", "perpetual", "seats=3");
+        client.validate("IRON-VALID");
+
+        assertEquals(Arrays.asList(true, false), changes);
+    }
+
+    @Test
+    void automaticReclaimStopsAtTheActivationDeadline() {
+        server.setMaxActivations("IRON-VALID", 10);
+        Instant longAgo = Instant.now().minus(Duration.ofDays(30));
+        for (int i = 0; i < 10; i++) {
+            server.addActivation("IRON-VALID", "stale-" + i, "old", longAgo);
+        }
+        client.close();
+        client = new LicenseClient(options()
+            .reclaimIdleAfter(Duration.ofDays(1))
+            .reclaimBatchSize(1)
+            .reclaimBatchesPerSecond(2)
+            .build());
+
+        long start = System.nanoTime();
+        client.activate("IRON-VALID", "new", Duration.ofMillis(1200));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 2500, "took " + elapsedMillis + " ms");
+        assertTrue(server.getActivationCount("IRON-VALID") > 1);
+    }
+
+    @Test
+    void unknownKeyFailsWithErrorCode() {
+        LicenseResult result = client.validate("IRON-UNKNOWN");
+
+        assertFalse(result.isValid());
+        assertEquals(ErrorCode.INVALID_KEY, result.getErrorCode());
+        assertEquals(404, result.getHttpStatus());
+        assertNull(client.getLicense());
+    }
+
+    @Test
+    void revokedLicenseIsNotValid() {
+        LicenseResult result = client.validate("IRON-REVOKED");
+
+        assertFalse(result.isValid());
+        assertEquals(ErrorCode.REVOKED, result.getErrorCode());
+    }
+
+    @Test
+    void serverErrorFallsBackToLoadedLicense() {
+        assertTrue(client.validate("IRON-VALID").isValid());
+        server.setErrorRate(1.0);
+
+        LicenseResult result = client.validate("IRON-VALID");
+
+        assertTrue(result.isValid());
+        assertTrue(result.isCached());
+        assertTrue(client.hasFeature("premium"));
+    }
+
+    @Test
+    void reclaimSkipsActivationsWithUnreadableLastSeen() {
+        String longAgo = Instant.now().minus(Duration.ofDays(30)).toString();
+        server.addActivation("IRON-VALID", "never-seen", "old", longAgo, null)
+            .addActivation("IRON-VALID", "blank-seen", "old", longAgo, "")
+            .addActivation("IRON-VALID", "garbled-seen", "old", longAgo, "yesterday")
+            .addActivation("IRON-VALID", "recently-seen", "old", longAgo, Instant.now().toString());
+
+        Set<String> reclaimed = client.reclaimStaleActivations("IRON-VALID", Duration.ofDays(1));
+
+        assertEquals(Set.of("never-seen", "blank-seen"), reclaimed);
+        assertEquals(2, server.getActivationCount("IRON-VALID"));
+    }
+
+    @Test
+    void activateAndDeactivate() {
+        assertTrue(client.activate("IRON-VALID", "test-machine").isValid());
+        assertEquals(1, server.getActivationCount("IRON-VALID"));
+
+        assertTrue(client.deactivate());
+        assertEquals(0, server.getActivationCount("IRON-VALID"));
+        assertNull(client.getLicense());
+    }
+
+    @Test
+    void sharedActivationIsNotReusedByAnotherMachineId() {
+        String slug = "client-test-" + UUID.randomUUID();
+        try (LicenseClient first = new LicenseClient(sharedOptions(slug, "machine-a"));
+             LicenseClient second = new LicenseClient(sharedOptions(slug, "machine-b"))) {
+            assertTrue(first.activate("IRON-VALID", "first").isValid());
+            assertTrue(second.activate("IRON-VALID", "second").isValid());
+
+            assertEquals(2, server.getActivationCount("IRON-VALID"));
+        }
+    }
+
+    private LicenseOptions sharedOptions(String slug, String machineId) {
+        return LicenseOptions.builder("pk_test", slug)
+            .apiBaseUrl(server.getBaseUrl())
+            .enableOfflineCache(false)
+            .sharedCache(true)
+            .machineIdProvider(() -> machineId)
+            .build();
+    }
+
+    @Test
+    void activationLimitIsClassified() {
+        server.setMaxActivations("IRON-VALID", 0);
+
+        LicenseResult result = client.activate("IRON-VALID");
+
+        assertFalse(result.isValid());
+        assertEquals(ErrorCode.MAX_ACTIVATIONS, result.getErrorCode());
+    }
+
+    @Test
+    void listActivationsFollowsCursors() {
+        for (int i = 0; i < 25; i++) {
+            server.addActivation("IRON-VALID", "machine-" + i, "Machine " + i, Instant.now());
+        }
+
+        List<Activation> activations = client.listActivations("IRON-VALID", 10).collect(Collectors.toList());
+
+        assertEquals(25, activations.size());
+        assertEquals(3, server.getRequestCount("activations"));
+    }
+
+    @Test
+    void deactivateMachinesRemovesThem() {
+        server.addActivation("IRON-VALID", "a", "A", Instant.now())
+            .addActivation("IRON-VALID", "b", "B", Instant.now());
+
+        Set<String> removed = client.deactivateMachines("IRON-VALID", List.of("a", "b", "c"));
+
+        assertEquals(Set.of("a", "b"), removed);
+        assertEquals(0, server.getActivationCount("IRON-VALID"));
+    }
+
+    @Test
+    void quotasAreEnforced() {
+        client.validate("IRON-VALID");
+
+        assertTrue(client.tryConsume("seats", 2));
+        assertFalse(client.tryConsume("seats", 2));
+        client.release("seats", 1);
+        assertTrue(client.tryConsume("seats", 2));
+        assertEquals(3, client.getUsage("seats"));
+    }
+
+    @Test
+    void tiersAreCachedAndIndexed() {
+        assertEquals(2, client.getTiers().size());
+        assertEquals("Pro", client.getTierBySlug("pro").getName());
+        assertEquals("tier-basic", client.getCheapestTierFor("export").getId());
+        assertEquals("tier-pro", client.getCheapestTierFor("premium").getId());
+        assertEquals(1, server.getRequestCount("tiers"));
+    }
+
+    @Test
+    void cachedTiersCannotBeModified() {
+        ProductTier pro = client.getTierBySlug("pro");
+
+        assertThrows(UnsupportedOperationException.class, () -> pro.getFeatures().clear());
+        assertThrows(UnsupportedOperationException.class, () -> client.getTiers().clear());
+        assertEquals(2, client.getTierBySlug("pro").getFeatures().size());
+    }
+
+    @Test
+    void concurrentTierLookupsDuringOutageMakeOneRequest() throws Exception {
+        server.setErrorRate(1.0).setLatency(Duration.ofMillis(200));
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<List<ProductTier>>> lookups = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                lookups.add(pool.submit(client::getTiers));
+            }
+            for (Future<List<ProductTier>> lookup : lookups) {
+                assertTrue(lookup.get(5, TimeUnit.SECONDS).isEmpty());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(client.getTiers().isEmpty());
+        assertEquals(1, server.getRequestCount("tiers"));
+    }
+
+    @Test
+    void trialLoadsLicense() {
+        LicenseResult result = client.startTrial("dev@example.com");
+
+        assertTrue(result.isValid());
+        assertTrue(client.isTrial());
+    }
+
+    @Test
+    void checkoutReturnsUrl() {
+        CheckoutResult result = client.startPurchase("tier-pro", "dev@example.com");
+
+        assertTrue(result.isSuccess());
+        assertNotNull(result.getCheckoutUrl());
+    }
+
+    @Test
+    void requireFeatureThrowsWithoutLicense() {
+        assertThrows(LicenseRequiredException.class, () -> client.requireFeature("premium"));
+        assertFalse(client.checkFeature("premium").isAllowed());
+    }
+
+    @Test
+    void denialsCarryStackTracesUnlessLightweight() {
+        LicenseRequiredException required = assertThrows(LicenseRequiredException.class,
+            () -> client.requireFeature("premium"));
+        LicenseRequiredException checked = assertThrows(LicenseRequiredException.class,
+            () -> client.checkFeature("premium").orThrow());
+        assertTrue(required.getStackTrace().length > 0);
+        assertTrue(checked.getStackTrace().length > 0);
+        checked.addSuppressed(new IllegalStateException());
+        assertEquals(1, checked.getSuppressed().length);
+
+        try (LicenseClient lightweight = new LicenseClient(options().lightweightExceptions(true).build())) {
+            required = assertThrows(LicenseRequiredException.class, () -> lightweight.requireFeature("premium"));
+            checked = assertThrows(LicenseRequiredException.class,
+                () -> lightweight.checkFeature("premium").orThrow());
+        }
+        assertEquals(0, required.getStackTrace().length);
+        assertEquals(0, checked.getStackTrace().length);
+    }
+
+    @Test
+    void deadlineFallsBackToLoadedLicense() {
+        client.validate("IRON-VALID");
+        server.setLatency(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        LicenseResult result = client.validate("IRON-VALID", Duration.ofMillis(100));
+
+        assertTrue(result.isCached());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void closedClientRejectsCalls() {
+        client.close();
+
+        assertThrows(IllegalStateException.class, () -> client.validate("IRON-VALID"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LicensePublisherTest {
+    private static License license(String key) {
+        return License.builder().key(key).status(LicenseStatus.VALID).build();
+    }
+
+    private static final class Recorder implements Flow.Subscriber<License> {
+        final List<License> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final long initialDemand;
+        Flow.Subscription subscription;
+
+        Recorder(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(License item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    // Runs signals on the calling thread, so assertions see them without waiting.
+    private static LicensePublisher publisher() {
+        return new LicensePublisher(Runnable::run);
+    }
+
+    @Test
+    void replaysTheLatestLicenseOnSubscribe() {
+        LicensePublisher publisher = publisher();
+        License second = license("B");
+        publisher.submit(license("A"));
+        publisher.submit(second);
+
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(recorder);
+
+        assertEquals(List.of(second), recorder.received);
+    }
+
+    @Test
+    void conflatesWhileThereIsNoDemand() {
+        LicensePublisher publisher = publisher();
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder);
+        License last = license("C");
+        publisher.submit(license("A"));
+        publisher.submit(license("B"));
+        publisher.submit(last);
+
+        recorder.subscription.request(10);
+
+        assertEquals(1, recorder.received.size());
+        assertSame(last, recorder.received.get(0));
+    }
+
+    @Test
+    void deliversEachUpdateWithDemand() {
+        LicensePublisher publisher = publisher();
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(recorder);
+
+        publisher.submit(license("A"));
+        publisher.submit(license("B"));
+
+        assertEquals(2, recorder.received.size());
+    }
+
+    @Test
+    void closeCompletesSubscribers() throws Exception {
+        LicensePublisher publisher = publisher();
+        Recorder recorder = new Recorder(1);
+        publisher.subscribe(recorder);
+
+        publisher.close();
+
+        assertTrue(recorder.completed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancelledSubscribersReceiveNothing() {
+        LicensePublisher publisher = publisher();
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(recorder);
+        recorder.subscription.cancel();
+
+        publisher.submit(license("A"));
+
+        assertTrue(recorder.received.isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+package com.ironservices.licensing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntPredicate;
+
+/**
+ * Drives concurrent load against a {@link LicenseClient} and reports throughput and latency percentiles.
+ * Pair it with {@link MockLicenseServer} to measure the client offline.
+ */
+public final class LoadTestDriver {
+    private LoadTestDriver() {}
+
+    /**
+     * Runs an operation from several threads for a fixed duration.
+     *
+     * @param threads   Number of concurrent callers
+     * @param duration  How long to run
+     * @param operation The call to measure; returns true on success
+     * @return The aggregated report
+     */
+    public static Report run(int threads, Duration duration, IntPredicate operation)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Recorder> recorders = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            int worker = i;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = operation.test(worker);
+                    } catch (RuntimeException e) {
+                        ok = false;
+                    }
+                    recorder.record(System.nanoTime() - begin, ok);
+                }
+            }, "load-test-" + i);
+            workers.add(t);
+            t.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread t : workers) {
+            t.join();
+        }
+        return Report.of(recorders, System.nanoTime() - began);
+    }
+
+    /**
+     * Runs validations of a single license key against the given client.
+     */
+    public static Report validate(LicenseClient client, String licenseKey, int threads, Duration duration)
+            throws InterruptedException {
+        return run(threads, duration, worker -> client.validate(licenseKey).isValid());
+    }
+
+    /**
+     * Starts a {@link MockLicenseServer}, validates against it and prints the report.
+     * Arguments: {@code [threads] [seconds] [latencyMillis] [errorRate]}.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+
+        try (MockLicenseServer server = new MockLicenseServer()) {
+            server.addLicense("IRON-LOAD-TEST", "valid", "perpetual", "premium")
+                .setLatency(Duration.ofMillis(latencyMillis))
+                .setErrorRate(errorRate)
+                .start();
+
+            LicenseOptions options = LicenseOptions.builder("pk_test_load", "load-test")
+                .apiBaseUrl(server.getBaseUrl())
+                .build();
+            try (LicenseClient client = new LicenseClient(options)) {
+                Report report = validate(client, "IRON-LOAD-TEST", threads, Duration.ofSeconds(seconds));
+                System.out.println(report);
+            }
+        }
+    }
+
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long failures;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                failures++;
+            }
+        }
+    }
+
+    /**
+     * Result of a load test run.
+     */
+    public static final class Report {
+        private final long operations;
+        private final long failures;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        private Report(long operations, long failures, long elapsedNanos, long[] sortedLatencies) {
+            this.operations = operations;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        static Report of(List<Recorder> recorders, long elapsedNanos) {
+            int total = 0;
+            long failures = 0;
+            for (Recorder r : recorders) {
+                total += r.count;
+                failures += r.failures;
+            }
+            long[] all = new long[total];
+            int offset = 0;
+            for (Recorder r : recorders) {
+                System.arraycopy(r.latencies, 0, all, offset, r.count);
+                offset += r.count;
+            }
+            Arrays.sort(all);
+            return new Report(total, failures, elapsedNanos, all);
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public double getThroughputPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Gets a latency percentile.
+         *
+         * @param percentile Percentile between 0 and 100
+         * @return The latency at that percentile
+         */
+        public Duration getLatency(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Duration.ZERO;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            index = Math.max(0, Math.min(sortedLatencies.length - 1, index));
+            return Duration.ofNanos(sortedLatencies[index]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Report{ops=%d, failures=%d, throughput=%.1f/s, p50=%.3fms, p90=%.3fms, "
+                    + "p99=%.3fms, p99.9=%.3fms, max=%.3fms}",
+                operations, failures, getThroughputPerSecond(),
+                millis(getLatency(50)), millis(getLatency(90)), millis(getLatency(99)),
+                millis(getLatency(99.9)), millis(getLatency(100)));
+        }
+
+        private static double millis(Duration d) {
+            return d.toNanos() / 1_000_000.0;
+        }
+    }
+}
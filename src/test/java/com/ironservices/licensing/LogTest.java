@@ -0,0 +1,75 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class LogTest {
+    private static final class RecordingLogger implements System.Logger {
+        final List<String> messages = new ArrayList<>();
+        final Level threshold;
+
+        RecordingLogger(Level threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public boolean isLoggable(Level level) {
+            return level.getSeverity() >= threshold.getSeverity();
+        }
+
+        @Override
+        public void log(Level level, ResourceBundle bundle, String msg, Throwable thrown) {
+            messages.add(level + " " + msg);
+        }
+
+        @Override
+        public void log(Level level, ResourceBundle bundle, String format, Object... params) {
+            messages.add(level + " " + new MessageFormat(format, Locale.GERMANY).format(params));
+        }
+    }
+
+    private static Log log(RecordingLogger logger) {
+        return Log.of(new LicenseOptions().setLogger(logger));
+    }
+
+    @Test
+    void countsAreNotGroupedByLocale() {
+        RecordingLogger logger = new RecordingLogger(System.Logger.Level.DEBUG);
+
+        log(logger).debug("Deactivating {0,number,#} machines", 1234567);
+        log(logger).debug("Back off {0,number,#} ms: {1}", 2500L, "/validate");
+
+        assertEquals(List.of("DEBUG Deactivating 1234567 machines", "DEBUG Back off 2500 ms: /validate"),
+            logger.messages);
+    }
+
+    @Test
+    void disabledLevelsFormatNothing() {
+        RecordingLogger logger = new RecordingLogger(System.Logger.Level.WARNING);
+        Log log = log(logger);
+        Supplier<String> message = () -> {
+            throw new AssertionError("built a message that was not logged");
+        };
+
+        log.debug(message);
+        log.debug("Count {0,number,#}", 5);
+        log.warn("Failed: {0}", "boom");
+
+        assertFalse(log.isEnabled());
+        assertEquals(List.of("WARNING Failed: boom"), logger.messages);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataTest {
+    private static final Gson GSON = new Gson();
+    private static final String JSON = "{\"key\":\"IRON-A\",\"metadata\":{ \"rank\" : 12345678901234567890,"
+        + " \"ratio\": 0.50, \"tier\": \"pro\", \"early\": true, \"tags\": [\"a\", {\"b\": null}] }}";
+
+    private static Metadata parse() {
+        return GSON.fromJson(JSON, License.class).getMetadataView();
+    }
+
+    @Test
+    void keepsCompactTextUntilRead() {
+        assertEquals("{\"rank\":12345678901234567890,\"ratio\":0.50,\"tier\":\"pro\",\"early\":true,"
+            + "\"tags\":[\"a\",{\"b\":null}]}", parse().toString());
+    }
+
+    @Test
+    void typedGettersReadValues() {
+        Metadata metadata = parse();
+
+        assertEquals(5, metadata.size());
+        assertEquals(Set.of("rank", "ratio", "tier", "early", "tags"), metadata.keys());
+        assertEquals(0.5, metadata.getDouble("ratio", -1), 0);
+        assertEquals("pro", metadata.getString("tier"));
+        assertTrue(metadata.getBoolean("early", false));
+        assertEquals(7, metadata.getLong("tier", 7));
+        assertNull(metadata.getString("tags"));
+        assertFalse(metadata.has("missing"));
+    }
+
+    @Test
+    void mayHaveOnlyRulesOutKeysTheTextNeverMentions() {
+        assertTrue(parse().mayHave("rank"));
+        assertFalse(parse().mayHave("limit"));
+        assertTrue(Metadata.of(Map.of("note", "limit")).mayHave("limit"));
+        assertFalse(Metadata.of(Map.of("note", "limit")).mayHave("note2"));
+    }
+
+    @Test
+    void decodesToAMap() {
+        Map<String, Object> map = parse().asMap();
+
+        assertEquals("pro", map.get("tier"));
+        assertEquals(0.5, map.get("ratio"));
+    }
+
+    @Test
+    void writesBackThroughStreamsAndTrees() {
+        License license = GSON.fromJson(JSON, License.class);
+
+        License fromText = GSON.fromJson(GSON.toJson(license), License.class);
+        JsonElement tree = GSON.toJsonTree(license);
+        License fromTree = GSON.fromJson(tree, License.class);
+
+        assertEquals(license.getMetadataView().toString(), fromText.getMetadataView().toString());
+        assertEquals("12345678901234567890", tree.getAsJsonObject().getAsJsonObject("metadata")
+            .get("rank").getAsString());
+        assertEquals(0.5, fromTree.getMetadataView().getDouble("ratio", -1), 0);
+        assertTrue(Metadata.sameContent(license.getMetadataView(), fromText.getMetadataView()));
+    }
+
+    @Test
+    void rejectsNonObjects() {
+        assertThrows(JsonParseException.class,
+            () -> GSON.fromJson("{\"metadata\":[1,2]}", License.class));
+    }
+}
@@ -0,0 +1,583 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embedded stand-in for the IronLicensing API, for tests and load testing.
+ * Speaks the same endpoints as the real service and keeps all state in memory.
+ *
+ * <pre>{@code
+ * try (MockLicenseServer server = new MockLicenseServer()) {
+ *     server.addLicense("IRON-TEST", "valid", "perpetual", "premium");
+ *     server.start();
+ *     LicenseClient client = new LicenseClient(
+ *         LicenseOptions.builder("pk_test", "my-product").apiBaseUrl(server.getBaseUrl()).build());
+ * }
+ * }</pre>
+ */
+public class MockLicenseServer implements AutoCloseable {
+    private static final int DEFAULT_MAX_ACTIVATIONS = 5;
+
+    private final Gson gson = new Gson();
+    private final Map<String, MockLicense> licenses = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> tiers = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration latencyJitter = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile int errorStatus = 500;
+    private volatile int maxRequestsPerSecond;
+    private volatile boolean gzipResponses;
+    private volatile boolean cborResponses;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MockLicenseServer() {}
+
+    /**
+     * Sets a fixed delay applied to every response.
+     */
+    public MockLicenseServer setLatency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Sets a random extra delay, uniformly distributed between zero and the given duration.
+     */
+    public MockLicenseServer setLatencyJitter(Duration latencyJitter) {
+        this.latencyJitter = latencyJitter;
+        return this;
+    }
+
+    /**
+     * Sets the fraction (0.0 - 1.0) of requests answered with {@link #setErrorStatus(int)}.
+     */
+    public MockLicenseServer setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Sets the HTTP status used for injected errors. Defaults to 500.
+     */
+    public MockLicenseServer setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /**
+     * Caps throughput; requests above the cap are answered with 429 and a Retry-After header.
+     * Zero (the default) means unlimited.
+     */
+    public MockLicenseServer setMaxRequestsPerSecond(int maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        return this;
+    }
+
+    /**
+     * Gzips responses for clients that send Accept-Encoding: gzip. Off by default.
+     */
+    public MockLicenseServer setGzipResponses(boolean gzipResponses) {
+        this.gzipResponses = gzipResponses;
+        return this;
+    }
+
+    /**
+     * Answers in CBOR for clients whose Accept header lists application/cbor. Off by default.
+     */
+    public MockLicenseServer setCborResponses(boolean cborResponses) {
+        this.cborResponses = cborResponses;
+        return this;
+    }
+
+    /**
+     * Registers a license the server will recognize.
+     *
+     * @param key      The license key
+     * @param status   License status value, e.g. "valid" or "expired"
+     * @param type     License type value, e.g. "perpetual"
+     * @param features Enabled feature keys, optionally with a limit as "key=limit"
+     */
+    public MockLicenseServer addLicense(String key, String status, String type, String... features) {
+        licenses.put(key, new MockLicense(key, status, type, features, DEFAULT_MAX_ACTIVATIONS));
+        return this;
+    }
+
+    /**
+     * Sets the activation cap of a registered license.
+     */
+    public MockLicenseServer setMaxActivations(String key, int maxActivations) {
+        MockLicense license = licenses.get(key);
+        if (license != null) {
+            license.maxActivations = maxActivations;
+        }
+        return this;
+    }
+
+    /**
+     * Adds an existing activation to a registered license, e.g. to simulate machines left behind by a fleet.
+     */
+    public MockLicenseServer addActivation(String key, String machineId, String machineName, Instant lastSeenAt) {
+        return addActivation(key, machineId, machineName, lastSeenAt.toString(), lastSeenAt.toString());
+    }
+
+    /**
+     * Registers an activation with timestamps exactly as the server reports them; null leaves a field out.
+     */
+    public MockLicenseServer addActivation(String key, String machineId, String machineName, String activatedAt,
+                                           String lastSeenAt) {
+        MockLicense license = licenses.get(key);
+        if (license != null) {
+            JsonObject activation = new JsonObject();
+            activation.addProperty("id", UUID.randomUUID().toString());
+            activation.addProperty("machineId", machineId);
+            activation.addProperty("machineName", machineName);
+            activation.addProperty("platform", "linux");
+            activation.addProperty("activatedAt", activatedAt);
+            activation.addProperty("lastSeenAt", lastSeenAt);
+            synchronized (license) {
+                license.activations.put(machineId, activation);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of machines a registered license is activated on.
+     */
+    public int getActivationCount(String key) {
+        MockLicense license = licenses.get(key);
+        if (license == null) {
+            return 0;
+        }
+        synchronized (license) {
+            return license.activations.size();
+        }
+    }
+
+    /**
+     * Registers a product tier returned by the tiers endpoint.
+     */
+    public MockLicenseServer addTier(String id, String slug, String name, double price, String... features) {
+        JsonObject tier = new JsonObject();
+        tier.addProperty("id", id);
+        tier.addProperty("slug", slug);
+        tier.addProperty("name", name);
+        tier.addProperty("price", price);
+        tier.addProperty("currency", "USD");
+        tier.addProperty("billingPeriod", "monthly");
+        tier.add("features", featureArray(features));
+        tiers.put(id, tier);
+        return this;
+    }
+
+    /**
+     * Starts the server on a random loopback port.
+     */
+    public synchronized MockLicenseServer start() throws IOException {
+        if (server != null) {
+            return this;
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "mock-licensing-server");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/v1/validate", handler("validate", this::handleValidate));
+        server.createContext("/api/v1/activate", handler("activate", this::handleActivate));
+        server.createContext("/api/v1/deactivate", handler("deactivate", this::handleDeactivate));
+        server.createContext("/api/v1/deactivate/batch", handler("deactivate/batch", this::handleDeactivateBatch));
+        server.createContext("/api/v1/activations", handler("activations", this::handleActivations));
+        server.createContext("/api/v1/trial", handler("trial", this::handleTrial));
+        server.createContext("/api/v1/tiers", handler("tiers", this::handleTiers));
+        server.createContext("/api/v1/checkout", handler("checkout", this::handleCheckout));
+        server.start();
+        return this;
+    }
+
+    /**
+     * Gets the base URL to pass to {@code LicenseOptions.apiBaseUrl}.
+     */
+    public String getBaseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the number of requests received by an endpoint, e.g. "validate".
+     */
+    public long getRequestCount(String endpoint) {
+        AtomicLong count = requestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Gets the total number of requests received.
+     */
+    public long getTotalRequestCount() {
+        return requestCounts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private interface Endpoint {
+        Reply handle(HttpExchange exchange, JsonObject body);
+    }
+
+    private static final class Reply {
+        final int status;
+        final JsonObject body;
+
+        Reply(int status, JsonObject body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private HttpHandler handler(String name, Endpoint endpoint) {
+        AtomicLong count = requestCounts.computeIfAbsent(name, k -> new AtomicLong());
+        return exchange -> {
+            try {
+                count.incrementAndGet();
+                delay();
+                JsonObject body = readBody(exchange);
+                Reply reply;
+                if (exchange.getRequestHeaders().getFirst("X-Public-Key") == null) {
+                    reply = error(401, "invalid_public_key");
+                } else if (!admit()) {
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                    reply = error(429, "rate_limited");
+                } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    reply = error(errorStatus, "injected_failure");
+                } else {
+                    reply = endpoint.handle(exchange, body);
+                }
+                write(exchange, reply);
+            } catch (Exception e) {
+                write(exchange, error(500, "internal_error"));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void delay() throws InterruptedException {
+        long millis = latency.toMillis();
+        long jitter = latencyJitter.toMillis();
+        if (jitter > 0) {
+            millis += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private boolean admit() {
+        int max = maxRequestsPerSecond;
+        if (max <= 0) {
+            return true;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long start = windowStart.get();
+        if (second != start && windowStart.compareAndSet(start, second)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= max;
+    }
+
+    private JsonObject readBody(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return new JsonObject();
+        }
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            JsonElement element = JsonParser.parseReader(reader);
+            return element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+        }
+    }
+
+    private void write(HttpExchange exchange, Reply reply) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean cbor = cborResponses && accept != null && accept.contains("application/cbor");
+        byte[] bytes = cbor ? Cbor.encode(reply.body) : gson.toJson(reply.body).getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzipResponses && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", cbor ? "application/cbor" : "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(reply.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Reply handleValidate(HttpExchange exchange, JsonObject body) {
+        MockLicense license = licenses.get(string(body, "licenseKey"));
+        if (license == null) {
+            return error(404, "license_not_found");
+        }
+        synchronized (license) {
+            return licenseReply(license);
+        }
+    }
+
+    private Reply handleActivate(HttpExchange exchange, JsonObject body) {
+        MockLicense license = licenses.get(string(body, "licenseKey"));
+        if (license == null) {
+            return error(404, "license_not_found");
+        }
+        String machineId = string(body, "machineId");
+        synchronized (license) {
+            JsonObject existing = license.activations.get(machineId);
+            if (existing == null) {
+                if (license.activations.size() >= license.maxActivations) {
+                    return error(403, "max_activations_reached");
+                }
+                String now = Instant.now().toString();
+                JsonObject activation = new JsonObject();
+                activation.addProperty("id", UUID.randomUUID().toString());
+                activation.addProperty("machineId", machineId);
+                activation.addProperty("machineName", string(body, "machineName"));
+                activation.addProperty("platform", string(body, "platform"));
+                activation.addProperty("activatedAt", now);
+                activation.addProperty("lastSeenAt", now);
+                license.activations.put(machineId, activation);
+            } else {
+                existing.addProperty("lastSeenAt", Instant.now().toString());
+            }
+            return licenseReply(license);
+        }
+    }
+
+    private Reply handleDeactivate(HttpExchange exchange, JsonObject body) {
+        MockLicense license = licenses.get(string(body, "licenseKey"));
+        if (license == null) {
+            return error(404, "license_not_found");
+        }
+        synchronized (license) {
+            if (license.activations.remove(string(body, "machineId")) == null) {
+                return error(404, "activation_not_found");
+            }
+        }
+        JsonObject reply = new JsonObject();
+        reply.addProperty("success", true);
+        return new Reply(200, reply);
+    }
+
+    private Reply handleDeactivateBatch(HttpExchange exchange, JsonObject body) {
+        MockLicense license = licenses.get(string(body, "licenseKey"));
+        if (license == null) {
+            return error(404, "license_not_found");
+        }
+        JsonArray deactivated = new JsonArray();
+        JsonElement machineIds = body.get("machineIds");
+        if (machineIds != null && machineIds.isJsonArray()) {
+            synchronized (license) {
+                for (JsonElement machineId : machineIds.getAsJsonArray()) {
+                    if (license.activations.remove(machineId.getAsString()) != null) {
+                        deactivated.add(machineId.getAsString());
+                    }
+                }
+            }
+        }
+        JsonObject reply = new JsonObject();
+        reply.add("deactivated", deactivated);
+        return new Reply(200, reply);
+    }
+
+    // Cursors are opaque to clients; here they are just the offset of the next page.
+    private Reply handleActivations(HttpExchange exchange, JsonObject body) {
+        MockLicense license = licenses.get(string(body, "licenseKey"));
+        if (license == null) {
+            return error(404, "license_not_found");
+        }
+        String cursor = string(body, "cursor");
+        int offset = cursor != null ? Integer.parseInt(cursor) : 0;
+        int limit = body.has("limit") ? body.get("limit").getAsInt() : 100;
+        JsonArray page = new JsonArray();
+        int total;
+        synchronized (license) {
+            total = license.activations.size();
+            license.activations.values().stream().skip(offset).limit(limit).forEach(page::add);
+        }
+        JsonObject reply = new JsonObject();
+        reply.add("activations", page);
+        if (offset + page.size() < total) {
+            reply.addProperty("nextCursor", Integer.toString(offset + page.size()));
+        }
+        return new Reply(200, reply);
+    }
+
+    private Reply handleTrial(HttpExchange exchange, JsonObject body) {
+        String email = string(body, "email");
+        if (email == null || email.isEmpty()) {
+            return error(400, "email_required");
+        }
+        String key = "TRIAL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        MockLicense license = new MockLicense(key, "trial", "trial", new String[0], 1);
+        license.email = email;
+        license.expiresAt = Instant.now().plus(Duration.ofDays(14)).toString();
+        licenses.put(key, license);
+        synchronized (license) {
+            return licenseReply(license);
+        }
+    }
+
+    private Reply handleTiers(HttpExchange exchange, JsonObject body) {
+        JsonArray array = new JsonArray();
+        synchronized (tiers) {
+            tiers.values().forEach(array::add);
+        }
+        JsonObject reply = new JsonObject();
+        reply.add("tiers", array);
+        return new Reply(200, reply);
+    }
+
+    private Reply handleCheckout(HttpExchange exchange, JsonObject body) {
+        String tierId = string(body, "tierId");
+        if (tierId == null || !tiers.containsKey(tierId)) {
+            return error(404, "tier_not_found");
+        }
+        String sessionId = UUID.randomUUID().toString();
+        JsonObject reply = new JsonObject();
+        reply.addProperty("checkoutUrl", getBaseUrl() + "/checkout/" + sessionId);
+        reply.addProperty("sessionId", sessionId);
+        return new Reply(200, reply);
+    }
+
+    private Reply licenseReply(MockLicense license) {
+        boolean valid = "valid".equals(license.status) || "trial".equals(license.status);
+        JsonObject reply = new JsonObject();
+        reply.addProperty("valid", valid);
+        reply.add("license", license.toJson());
+        JsonArray activations = new JsonArray();
+        license.activations.values().forEach(activations::add);
+        reply.add("activations", activations);
+        if (!valid) {
+            reply.addProperty("error", "license_" + license.status);
+        }
+        return new Reply(200, reply);
+    }
+
+    private static Reply error(int status, String error) {
+        JsonObject body = new JsonObject();
+        body.addProperty("error", error);
+        return new Reply(status, body);
+    }
+
+    private static String string(JsonObject body, String name) {
+        JsonElement element = body.get(name);
+        return element != null && !element.isJsonNull() ? element.getAsString() : null;
+    }
+
+    private static JsonArray featureArray(String[] features) {
+        JsonArray array = new JsonArray();
+        for (String spec : features) {
+            int eq = spec.indexOf('=');
+            String key = eq >= 0 ? spec.substring(0, eq) : spec;
+            JsonObject feature = new JsonObject();
+            feature.addProperty("key", key);
+            feature.addProperty("name", key);
+            feature.addProperty("enabled", true);
+            if (eq >= 0) {
+                feature.addProperty("limit", Long.parseLong(spec.substring(eq + 1)));
+            }
+            array.add(feature);
+        }
+        return array;
+    }
+
+    private static final class MockLicense {
+        final String id = UUID.randomUUID().toString();
+        final String key;
+        final String status;
+        final String type;
+        final String[] features;
+        final String createdAt = Instant.now().toString();
+        final Map<String, JsonObject> activations = new LinkedHashMap<>();
+        int maxActivations;
+        String email;
+        String expiresAt;
+
+        MockLicense(String key, String status, String type, String[] features, int maxActivations) {
+            this.key = key;
+            this.status = status;
+            this.type = type;
+            this.features = features;
+            this.maxActivations = maxActivations;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("id", id);
+            json.addProperty("key", key);
+            json.addProperty("status", status);
+            json.addProperty("type", type);
+            json.addProperty("email", email);
+            json.add("features", featureArray(features));
+            json.addProperty("maxActivations", maxActivations);
+            json.addProperty("currentActivations", activations.size());
+            json.addProperty("expiresAt", expiresAt);
+            json.addProperty("createdAt", createdAt);
+            json.addProperty("lastValidatedAt", Instant.now().toString());
+            return json;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    @Test
+    void allowsABurstThenRefuses() {
+        RateLimiter limiter = new RateLimiter(1.0, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire());
+        }
+        long wait = limiter.tryAcquire();
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+    }
+
+    @Test
+    void unlimitedWithoutARate() {
+        RateLimiter limiter = new RateLimiter(0, 1);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.tryAcquire());
+        }
+    }
+
+    @Test
+    void acquireWaitsForARefill() throws Exception {
+        RateLimiter limiter = new RateLimiter(20.0, 1);
+        assertEquals(0, limiter.tryAcquire());
+
+        long start = System.nanoTime();
+        assertTrue(limiter.acquire(TimeUnit.SECONDS.toNanos(1)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void acquireGivesUpPastItsBudget() throws Exception {
+        RateLimiter limiter = new RateLimiter(0.1, 1);
+        assertEquals(0, limiter.tryAcquire());
+
+        assertFalse(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(50)));
+    }
+
+    @Test
+    void blockForClosesEvenAnUnlimitedEndpoint() throws Exception {
+        RateLimiter limiter = new RateLimiter(0, 1);
+        limiter.blockFor(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertTrue(limiter.tryAcquire() > 0);
+        Thread.sleep(120);
+        assertEquals(0, limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,164 @@
+package com.ironservices.licensing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedLicenseCacheTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final String MACHINE = "machine-a";
+
+    private final Log log = Log.of(new LicenseOptions());
+    private String slug;
+    private SharedLicenseCache writer;
+    private SharedLicenseCache reader;
+
+    @BeforeEach
+    void setUp() {
+        slug = "shared-test-" + UUID.randomUUID();
+        writer = SharedLicenseCache.open(slug, MACHINE, log);
+        reader = SharedLicenseCache.open(slug, MACHINE, log);
+        assertNotNull(writer);
+        assertNotNull(reader);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+        reader.close();
+    }
+
+    private static License license(String key, String name) {
+        return License.builder().key(key).name(name).status(LicenseStatus.VALID).build();
+    }
+
+    @Test
+    void emptyCacheHasNothing() {
+        assertNull(reader.read("IRON-A", HOUR, false));
+        assertEquals(0, reader.lastWrittenAt());
+    }
+
+    @Test
+    void readsWhatAnotherInstanceWrote() {
+        writer.write("IRON-A", license("IRON-A", "first"), false);
+
+        License read = reader.read("IRON-A", HOUR, false);
+
+        assertNotNull(read);
+        assertEquals("first", read.getName());
+        assertNull(reader.read("IRON-B", HOUR, false));
+    }
+
+    @Test
+    void unchangedRecordsAreNotDecodedAgain() {
+        writer.write("IRON-A", license("IRON-A", "first"), false);
+
+        assertTrue(reader.read("IRON-A", HOUR, false) == reader.read("IRON-A", HOUR, false));
+    }
+
+    @Test
+    void activationMarkSticksForTheSameKey() {
+        writer.write("IRON-A", license("IRON-A", "first"), true);
+        writer.write("IRON-A", license("IRON-A", "second"), false);
+        assertNotNull(reader.read("IRON-A", HOUR, true));
+
+        writer.write("IRON-B", license("IRON-B", "other"), false);
+        assertNull(reader.read("IRON-B", HOUR, true));
+    }
+
+    @Test
+    void activationMarkIsKeptPerMachineId() {
+        try (SharedLicenseCache other = SharedLicenseCache.open(slug, "machine-b", log)) {
+            writer.write("IRON-A", license("IRON-A", "first"), true);
+            assertNotNull(other.read("IRON-A", HOUR, false));
+            assertNull(other.read("IRON-A", HOUR, true));
+
+            other.write("IRON-A", license("IRON-A", "second"), false);
+            assertNull(reader.read("IRON-A", HOUR, true));
+        }
+    }
+
+    @Test
+    void staleRecordsAreIgnored() throws Exception {
+        writer.write("IRON-A", license("IRON-A", "first"), false);
+        Thread.sleep(20);
+
+        assertNull(reader.read("IRON-A", 5, false));
+    }
+
+    @Test
+    void growsForLargeRecords() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            name.append('x');
+        }
+        writer.write("IRON-A", license("IRON-A", name.toString()), false);
+
+        assertEquals(100_000, reader.read("IRON-A", HOUR, false).getName().length());
+    }
+
+    @Test
+    void editedRecordsAreIgnored() throws Exception {
+        writer.write("IRON-A", license("IRON-A", "first"), false);
+        Path file = SharedLicenseCache.directory().resolve(SharedLicenseCache.fileName(slug, ".cache"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+            channel.read(content, 0);
+            String record = new String(content.array(), StandardCharsets.ISO_8859_1);
+            int name = record.indexOf("first");
+            channel.write(ByteBuffer.wrap("forge".getBytes(StandardCharsets.ISO_8859_1)), name);
+        }
+
+        try (SharedLicenseCache fresh = SharedLicenseCache.open(slug, MACHINE, log)) {
+            assertNull(fresh.read("IRON-A", HOUR, false));
+        }
+    }
+
+    // Readers racing a writer must only ever see whole records, never a mix of two writes.
+    @Test
+    void readersNeverSeeTornRecords() throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                while (!done.get()) {
+                    License license = reader.read("IRON-A", HOUR, false);
+                    if (license != null && !license.getName().equals("n" + license.getId())) {
+                        torn.set(license.getName() + " / " + license.getId());
+                    }
+                }
+            });
+            readers.add(thread);
+            thread.start();
+        }
+        for (int i = 0; i < 2000; i++) {
+            String id = Integer.toString(i);
+            writer.write("IRON-A", License.builder().key("IRON-A").id(id).name("n" + id)
+                .status(LicenseStatus.VALID).build(), false);
+        }
+        done.set(true);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        assertNull(torn.get());
+    }
+}
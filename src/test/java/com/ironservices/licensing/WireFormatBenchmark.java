@@ -0,0 +1,113 @@
+package com.ironservices.licensing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares decoding a validation response from JSON and from CBOR, each the way {@link Transport} reads it:
+ * JSON streamed from the body's character stream, CBOR from the body's bytes.
+ * Arguments: {@code [features] [iterations]}.
+ */
+public final class WireFormatBenchmark {
+    private WireFormatBenchmark() {}
+
+    public static void main(String[] args) {
+        int features = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        Gson gson = new Gson();
+        JsonObject response = sampleResponse(features);
+        String json = gson.toJson(response);
+        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        byte[] cbor = Cbor.encode(response);
+
+        System.out.printf("Payload: JSON %d bytes, CBOR %d bytes%n", jsonBytes.length, cbor.length);
+
+        // Warm up both paths before measuring.
+        run("JSON", iterations / 4, () -> decodeJson(gson, jsonBytes));
+        run("CBOR", iterations / 4, () -> Cbor.decode(gson, cbor, LicenseResult.class));
+
+        report("JSON", iterations,
+            run("JSON", iterations, () -> decodeJson(gson, jsonBytes)));
+        report("CBOR", iterations,
+            run("CBOR", iterations, () -> Cbor.decode(gson, cbor, LicenseResult.class)));
+    }
+
+    private static LicenseResult decodeJson(Gson gson, byte[] body) {
+        return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8),
+            LicenseResult.class);
+    }
+
+    private interface Decode {
+        LicenseResult decode();
+    }
+
+    private static long run(String name, int iterations, Decode decode) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += decode.decode().getLicense().getFeatures().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) {
+            System.out.println(name);
+        }
+        return elapsed;
+    }
+
+    private static void report(String name, int iterations, long elapsedNanos) {
+        System.out.printf("%s: %.0f decodes/s, %.2f us/decode%n", name,
+            iterations * 1_000_000_000.0 / elapsedNanos, elapsedNanos / 1000.0 / iterations);
+    }
+
+    private static JsonObject sampleResponse(int featureCount) {
+        JsonArray features = new JsonArray();
+        for (int i = 0; i < featureCount; i++) {
+            JsonObject feature = new JsonObject();
+            feature.addProperty("key", "feature-" + i);
+            feature.addProperty("name", "Feature " + i);
+            feature.addProperty("enabled", i % 3 != 0);
+            feature.addProperty("limit", i * 10);
+            JsonObject metadata = new JsonObject();
+            metadata.addProperty("category", "core");
+            metadata.addProperty("weight", i * 1.5);
+            feature.add("metadata", metadata);
+            features.add(feature);
+        }
+
+        JsonObject license = new JsonObject();
+        license.addProperty("id", "lic_0123456789");
+        license.addProperty("key", "IRON-ABCD-EFGH-IJKL-MNOP");
+        license.addProperty("status", "valid");
+        license.addProperty("type", "subscription");
+        license.addProperty("email", "ops@example.com");
+        license.add("features", features);
+        license.addProperty("maxActivations", 100);
+        license.addProperty("currentActivations", 42);
+        license.addProperty("expiresAt", "2027-01-01T00:00:00Z");
+        license.addProperty("createdAt", "2025-01-01T00:00:00Z");
+
+        JsonArray activations = new JsonArray();
+        for (int i = 0; i < 10; i++) {
+            JsonObject activation = new JsonObject();
+            activation.addProperty("id", "act_" + i);
+            activation.addProperty("machineId", "00000000-0000-0000-0000-00000000000" + i);
+            activation.addProperty("machineName", "worker-" + i);
+            activation.addProperty("platform", "linux");
+            activation.addProperty("activatedAt", "2025-06-01T00:00:00Z");
+            activation.addProperty("lastSeenAt", "2025-06-02T00:00:00Z");
+            activations.add(activation);
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("valid", true);
+        response.add("license", license);
+        response.add("activations", activations);
+        return response;
+    }
+}